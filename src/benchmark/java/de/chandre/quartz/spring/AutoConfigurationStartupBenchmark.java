@@ -0,0 +1,180 @@
+package de.chandre.quartz.spring;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.boot.Banner;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Boots an application context with {@link QuartzSchedulerAutoConfiguration} and generated jobs,
+ * each defined by {@link QuartzUtils#createJobDetail(Class, String, String, String, java.util.Map)} and
+ * {@link QuartzUtils#createSimpleTrigger(org.quartz.JobDetail, String, String, String, long, long, java.util.Map)},
+ * with the RAM job store and a JDBC job store on an empty H2 database.<br>
+ * {@link #refresh()} measures the context refresh including the trigger registration,
+ * {@link #schedulerStart()} the start of the scheduler (recovery with a JDBC job store).
+ * The heap retained by the context is printed after each refresh iteration.
+ *
+ * @author André
+ * @since 1.0.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AutoConfigurationStartupBenchmark {
+
+	private static final String JOBS_PROPERTY = "benchmark.jobs";
+
+	@Param({ "10", "1000", "10000" })
+	private int jobs;
+
+	@Param({ "RAM", "JDBC" })
+	private String store;
+
+	/**
+	 * factory: triggers handed to the SchedulerFactoryBean, deferred: QuartzTriggerRegistrar, bulk: bulk registration
+	 */
+	@Param({ "factory", "deferred", "bulk" })
+	private String registration;
+
+	public static class NoopJob implements Job {
+		@Override
+		public void execute(JobExecutionContext context) {}
+	}
+
+	/**
+	 * registers the generated jobs and triggers as bean definitions, so they are created like declared ones
+	 */
+	public static class JobDefinitionRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+
+		private int jobs;
+
+		@Override
+		public void setEnvironment(Environment environment) {
+			jobs = environment.getProperty(JOBS_PROPERTY, Integer.class, 0);
+		}
+
+		@Override
+		public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+			for (int i = 0; i < jobs; i++) {
+				String group = "group" + (i % 10);
+				registry.registerBeanDefinition("job" + i, BeanDefinitionBuilder.genericBeanDefinition(QuartzUtils.class)
+						.setFactoryMethod("createJobDetail")
+						.addConstructorArgValue(NoopJob.class).addConstructorArgValue("job" + i).addConstructorArgValue(group)
+						.addConstructorArgValue("generated job " + i).addConstructorArgValue(null)
+						.getBeanDefinition());
+				// starting in an hour, nothing fires during the benchmark
+				registry.registerBeanDefinition("trigger" + i, BeanDefinitionBuilder.genericBeanDefinition(QuartzUtils.class)
+						.setFactoryMethod("createSimpleTrigger")
+						.addConstructorArgValue(new RuntimeBeanReference("job" + i)).addConstructorArgValue("trigger" + i)
+						.addConstructorArgValue(group).addConstructorArgValue("generated trigger " + i)
+						.addConstructorArgValue(3600000L).addConstructorArgValue(60000L).addConstructorArgValue(null)
+						.getBeanDefinition());
+			}
+		}
+	}
+
+	@Configuration
+	@Import({ PropertyPlaceholderAutoConfiguration.class, QuartzSchedulerAutoConfiguration.class, JobDefinitionRegistrar.class })
+	public static class BenchmarkConfig {
+
+		@Bean
+		@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX + ".persistence", name = "persisted", havingValue = "true")
+		public DataSource dataSource() {
+			return new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+					.addScript("classpath:db/migration/h2/V001__QuartzInitialization.sql").build();
+		}
+	}
+
+	private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+	private ConfigurableApplicationContext context;
+	private long heapBefore;
+
+	@Setup(Level.Iteration)
+	public void setUp(BenchmarkParams params) {
+		heapBefore = usedHeap();
+		if (params.getBenchmark().endsWith(".schedulerStart")) {
+			context = createContext();
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown(BenchmarkParams params) {
+		if (params.getBenchmark().endsWith(".refresh")) {
+			System.out.println("retained heap: " + (usedHeap() - heapBefore) / 1024L + " KB");
+		}
+		context.close();
+	}
+
+	private long usedHeap() {
+		System.gc();
+		System.gc();
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+	private ConfigurableApplicationContext createContext() {
+		return new SpringApplicationBuilder(BenchmarkConfig.class).web(false).bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.properties(JOBS_PROPERTY + "=" + jobs,
+						"quartz.enabled=true",
+						"quartz.scheduler-factory.auto-startup=false",
+						"quartz.scheduler-factory.deferred-trigger-registration=" + !"factory".equals(registration),
+						"quartz.scheduler-factory.bulk-trigger-registration=" + "bulk".equals(registration),
+						"quartz.persistence.persisted=" + "JDBC".equals(store),
+						"quartz.properties.org.quartz.scheduler.skipUpdateCheck=true",
+						"quartz.properties.org.quartz.threadPool.threadCount=10")
+				.run();
+	}
+
+	@Benchmark
+	public Object refresh() {
+		context = createContext();
+		return context;
+	}
+
+	@Benchmark
+	public Object schedulerStart() throws Exception {
+		Scheduler scheduler = context.getBean(Scheduler.class);
+		scheduler.start();
+		return scheduler;
+	}
+}
@@ -0,0 +1,148 @@
+package de.chandre.quartz.spring;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Compares the job creation of {@link AutowiringSpringBeanJobFactory} with autowiring by the bean factory,
+ * with cached injection points and with pooled instances.
+ *
+ * @author André
+ * @since 1.0.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutowiringJobFactoryBenchmark {
+
+	@Configuration
+	public static class Config {
+
+		@Bean
+		public ServiceA serviceA() {
+			return new ServiceA();
+		}
+
+		@Bean
+		public ServiceB serviceB() {
+			return new ServiceB();
+		}
+
+		@Bean
+		public ServiceC serviceC() {
+			return new ServiceC();
+		}
+	}
+
+	public static class ServiceA {}
+
+	public static class ServiceB {}
+
+	public static class ServiceC {}
+
+	public static class BenchmarkJob implements Job {
+
+		@Autowired
+		private ServiceA serviceA;
+
+		@Autowired
+		private ServiceB serviceB;
+
+		@Autowired
+		private ServiceC serviceC;
+
+		@Override
+		public void execute(JobExecutionContext context) throws JobExecutionException {}
+	}
+
+	public static class PooledBenchmarkJob extends BenchmarkJob implements PoolableJob {}
+
+	private AnnotationConfigApplicationContext context;
+	private TriggerFiredBundle bundle;
+	private TriggerFiredBundle pooledBundle;
+
+	private AutowiringSpringBeanJobFactory autowireBean;
+	private AutowiringSpringBeanJobFactory cachedMetadata;
+	private AutowiringSpringBeanJobFactory cachedSingletons;
+	private AutowiringSpringBeanJobFactory pooled;
+
+	@Setup
+	public void setUp() {
+		context = new AnnotationConfigApplicationContext(Config.class);
+		bundle = createBundle(BenchmarkJob.class);
+		pooledBundle = createBundle(PooledBenchmarkJob.class);
+
+		autowireBean = createJobFactory(false, false);
+		cachedMetadata = createJobFactory(true, false);
+		cachedSingletons = createJobFactory(true, true);
+		pooled = createJobFactory(true, true);
+		pooled.setPoolJobInstances(true);
+	}
+
+	private static TriggerFiredBundle createBundle(Class<? extends Job> jobClass) {
+		return new TriggerFiredBundle(JobBuilder.newJob(jobClass).build(),
+				(OperableTrigger) TriggerBuilder.newTrigger().startNow().build(), null, false, new Date(), new Date(), null, null);
+	}
+
+	private AutowiringSpringBeanJobFactory createJobFactory(boolean cacheInjectionMetadata, boolean cacheSingletonDependencies) {
+		AutowiringSpringBeanJobFactory jobFactory = new AutowiringSpringBeanJobFactory();
+		jobFactory.setApplicationContext(context);
+		jobFactory.setCacheInjectionMetadata(cacheInjectionMetadata);
+		jobFactory.setCacheSingletonDependencies(cacheSingletonDependencies);
+		return jobFactory;
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Object autowireBean() throws Exception {
+		return autowireBean.createJobInstance(bundle);
+	}
+
+	@Benchmark
+	public Object cachedInjectionMetadata() throws Exception {
+		return cachedMetadata.createJobInstance(bundle);
+	}
+
+	@Benchmark
+	public Object cachedSingletonDependencies() throws Exception {
+		return cachedSingletons.createJobInstance(bundle);
+	}
+
+	@Benchmark
+	public Object pooledInstance() throws Exception {
+		Job job = (Job) pooled.createJobInstance(pooledBundle);
+		pooled.getJobPoolListener().jobWasExecuted(new JobExecutionContextImpl(null, pooledBundle, job), null);
+		return job;
+	}
+}
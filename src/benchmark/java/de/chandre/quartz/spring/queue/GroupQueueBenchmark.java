@@ -0,0 +1,104 @@
+package de.chandre.quartz.spring.queue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures offering and polling one instance on a {@link GroupQueue} already holding a backlog of
+ * 100 to 1M instances with random priorities and deadlines, first in first out and prioritized.
+ * The size of the queue stays the same, so the time per operation shows how it grows with the backlog:
+ * constant for first in first out, logarithmic for the prioritized heap.
+ *
+ * @author André
+ * @since 1.0.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GroupQueueBenchmark {
+
+	private static final int INSTANCES = 1024;
+
+	@Param({ "100", "10000", "1000000" })
+	private int backlog;
+
+	@Param({ "false", "true" })
+	private boolean prioritized;
+
+	private GroupQueue queue;
+	private QueuedInstance[] instances;
+	private int next;
+
+	private static class Instance implements QueuedInstance {
+		private final String name;
+		private final int priority;
+		private final long deadline;
+
+		Instance(String name, int priority, long deadline) {
+			this.name = name;
+			this.priority = priority;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public int getPriority() {
+			return priority;
+		}
+
+		@Override
+		public long getDeadline() {
+			return deadline;
+		}
+
+		@Override
+		public boolean run() {
+			return true;
+		}
+	}
+
+	@Setup
+	public void setUp() throws InterruptedException {
+		Random random = new Random(42L);
+		instances = new QueuedInstance[INSTANCES];
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < INSTANCES; i++) {
+			long deadline = random.nextBoolean() ? now + random.nextInt(60000) : QueuedInstance.NO_DEADLINE;
+			instances[i] = new Instance("instance" + i, random.nextInt(10), deadline);
+		}
+		queue = new GroupQueue("group", GroupQueue.UNBOUNDED, QueueOverflowPolicy.REJECT, 0L, false, prioritized);
+		for (int i = 0; i < backlog; i++) {
+			queue.offer(nextInstance());
+		}
+	}
+
+	private QueuedInstance nextInstance() {
+		next = (next + 1) & (INSTANCES - 1);
+		return instances[next];
+	}
+
+	@Benchmark
+	public Object offerAndPoll() throws InterruptedException {
+		queue.offer(nextInstance());
+		return queue.poll();
+	}
+}
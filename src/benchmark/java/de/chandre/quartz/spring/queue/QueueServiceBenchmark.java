@@ -0,0 +1,172 @@
+package de.chandre.quartz.spring.queue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the queue engines of {@link AsyncQueueServiceImpl} and {@link CallbackQueueServiceImpl}
+ * with 1, 100 and 10k groups:
+ * <ul>
+ * <li>{@link #enqueue(Producer)}: throughput of queuing instances, the queues are bounded and reject when full</li>
+ * <li>{@link #enqueueDuplicate(Producer)}: throughput of queuing an instance with a key which is already queued or running</li>
+ * <li>{@link #enqueueToStart(Producer)}: time from queuing an instance until it is started</li>
+ * </ul>
+ * The number of producer threads is given by the subclasses {@link OneProducer}, {@link EightProducers} and {@link SixtyFourProducers}.
+ *
+ * @author André
+ * @since 1.0.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public abstract class QueueServiceBenchmark {
+
+	private static final int CAPACITY = 100;
+
+	@Param({ "async", "callback" })
+	private String service;
+
+	@Param({ "1", "100", "10000" })
+	private int groups;
+
+	private AbstractQueueService<?> queueService;
+	private AbstractQueueService<?> dedupService;
+
+	private QueuedInstance[] instances;
+	private String[] groupNames;
+
+	@Threads(1)
+	public static class OneProducer extends QueueServiceBenchmark {}
+
+	@Threads(8)
+	public static class EightProducers extends QueueServiceBenchmark {}
+
+	@Threads(64)
+	public static class SixtyFourProducers extends QueueServiceBenchmark {}
+
+	@State(Scope.Thread)
+	public static class Producer {
+		private int next = ThreadLocalRandom.current().nextInt(10000);
+
+		int nextGroup(int groups) {
+			next = next + 1 == Integer.MAX_VALUE ? 0 : next + 1;
+			return next % groups;
+		}
+	}
+
+	private static class Instance implements QueuedInstance {
+		private final String group;
+		private final String name;
+
+		Instance(String group, String name) {
+			this.group = group;
+			this.name = name;
+		}
+
+		@Override
+		public String getGroup() {
+			return group;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public boolean run() {
+			return true;
+		}
+	}
+
+	private static class StartSignal extends Instance {
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		StartSignal(String group) {
+			super(group, "signal");
+		}
+
+		@Override
+		public boolean run() {
+			started.countDown();
+			return true;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		// the services log each execution
+		Configurator.setLevel("de.chandre", Level.WARN);
+		queueService = createService(true);
+		queueService.setCapacity(CAPACITY);
+		queueService.setOverflowPolicy(QueueOverflowPolicy.REJECT);
+		dedupService = createService(false);
+		instances = new QueuedInstance[groups];
+		groupNames = new String[groups];
+		for (int i = 0; i < groups; i++) {
+			groupNames[i] = "group" + i;
+			instances[i] = new Instance(groupNames[i], "instance");
+		}
+	}
+
+	private AbstractQueueService<?> createService(boolean allowMultipleInstances) {
+		if ("async".equals(service)) {
+			AsyncQueueServiceImpl asyncQueueService = new AsyncQueueServiceImpl(allowMultipleInstances);
+			asyncQueueService.init();
+			return asyncQueueService;
+		}
+		return new CallbackQueueServiceImpl(allowMultipleInstances);
+	}
+
+	@TearDown
+	public void tearDown() {
+		destroy(queueService);
+		destroy(dedupService);
+	}
+
+	private static void destroy(AbstractQueueService<?> queueService) {
+		if (queueService instanceof AsyncQueueServiceImpl) {
+			((AsyncQueueServiceImpl) queueService).destroy();
+		} else {
+			((AbstractSerialQueueService<?>) queueService).destroy();
+		}
+	}
+
+	@Benchmark
+	public Object enqueue(Producer producer) {
+		return queueService.queueMe(instances[producer.nextGroup(groups)]);
+	}
+
+	@Benchmark
+	public Object enqueueDuplicate(Producer producer) {
+		return dedupService.queueMe(instances[producer.nextGroup(groups)]);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	public boolean enqueueToStart(Producer producer) throws InterruptedException {
+		StartSignal signal = new StartSignal(groupNames[producer.nextGroup(groups)]);
+		queueService.queueMe(signal);
+		return signal.started.await(10L, TimeUnit.SECONDS);
+	}
+}
@@ -1,22 +1,99 @@
 package de.chandre.quartz.spring;
 
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.quartz.SchedulerContext;
+import org.quartz.listeners.JobListenerSupport;
 import org.quartz.spi.TriggerFiredBundle;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.scheduling.quartz.SpringBeanJobFactory;
+import org.springframework.util.ReflectionUtils;
 
 /**
- * Autowire Quartz Jobs with Spring context dependencies.
- * 
+ * Autowire Quartz Jobs with Spring context dependencies.<br>
+ * <br>
+ * With {@link #setCacheInjectionMetadata(boolean)} the injection points of each job class and the names of the injected beans
+ * are resolved only once, afterwards creating a job is looking up the cached beans only.
+ * Job classes having other injection points than fields annotated with {@link Autowired} or <code>@Inject</code>
+ * (e.g. {@link Value}, <code>@Resource</code> or injection methods) are still autowired by the bean factory.<br>
+ * With {@link #setCacheSingletonDependencies(boolean)} also the resolved singleton beans are cached, so they are just set to the fields.<br>
+ * With {@link #setPoolJobInstances(boolean)} instances of jobs implementing {@link PoolableJob} are reused.
+ * The instances are returned to the pool by the {@link JobListener} from {@link #getJobPoolListener()}, which has to be registered at the scheduler.
+ * Like new instances, pooled ones are populated with the job data map and scheduler context of each execution.
+ *
  * @see "http://stackoverflow.com/questions/6990767/inject-bean-reference-into-a-quartz-job-in-spring/15211030#15211030"
  */
 public final class AutowiringSpringBeanJobFactory extends SpringBeanJobFactory implements ApplicationContextAware {
+
+	private static final Log LOGGER = LogFactory.getLog(AutowiringSpringBeanJobFactory.class);
+
+	public static final int DEFAULT_MAX_POOLED_INSTANCES = 10;
+
+	private static final String INJECT_ANNOTATION = "javax.inject.Inject";
+
+	private static final Set<String> UNSUPPORTED_ANNOTATIONS = new HashSet<>(Arrays.asList(Value.class.getName(),
+			"javax.annotation.Resource", "javax.persistence.PersistenceContext", "javax.persistence.PersistenceUnit",
+			"javax.xml.ws.WebServiceRef", "javax.ejb.EJB"));
+
+	/*
+	 * marker for job classes which have to be autowired by the bean factory
+	 */
+	private static final JobInjectionPoints UNSUPPORTED = new JobInjectionPoints(Collections.emptyList());
+
 	/**
 	 * Holding an auto wire capable bean spring bean factory.
 	 */
 	private AutowireCapableBeanFactory beanFactory;
 
+	private boolean cacheInjectionMetadata = false;
+	private boolean cacheSingletonDependencies = false;
+
+	private final Map<Class<?>, JobInjectionPoints> injectionPointsCache = new ConcurrentHashMap<>();
+
+	private boolean poolJobInstances = false;
+	private int maxPooledInstances = DEFAULT_MAX_POOLED_INSTANCES;
+
+	private final Map<Class<?>, Queue<PoolableJob>> jobPools = new ConcurrentHashMap<>();
+
+	private final JobListener jobPoolListener = new JobPoolListener();
+
+	/*
+	 * kept for populating pooled jobs, the ones of the super class are private
+	 */
+	private String[] ignoredUnknownProperties;
+	private SchedulerContext schedulerContext;
+
 	/**
 	 * Constructor that takes an auto wire capable bean spring bean factory.
 	 * @param context
@@ -25,12 +102,331 @@ public final class AutowiringSpringBeanJobFactory extends SpringBeanJobFactory i
 	@Override
 	public void setApplicationContext(final ApplicationContext context) {
 		beanFactory = context.getAutowireCapableBeanFactory();
+		injectionPointsCache.clear();
+	}
+
+	@Override
+	public void setIgnoredUnknownProperties(String... ignoredUnknownProperties) {
+		super.setIgnoredUnknownProperties(ignoredUnknownProperties);
+		this.ignoredUnknownProperties = ignoredUnknownProperties;
+	}
+
+	@Override
+	public void setSchedulerContext(SchedulerContext schedulerContext) {
+		super.setSchedulerContext(schedulerContext);
+		this.schedulerContext = schedulerContext;
+	}
+
+	/**
+	 * if the injection points of job classes are resolved only once
+	 * @param cacheInjectionMetadata
+	 * @since 1.0.6
+	 */
+	public void setCacheInjectionMetadata(boolean cacheInjectionMetadata) {
+		this.cacheInjectionMetadata = cacheInjectionMetadata;
+	}
+
+	/**
+	 * @return if the injection points of job classes are resolved only once
+	 * @since 1.0.6
+	 */
+	public boolean isCacheInjectionMetadata() {
+		return cacheInjectionMetadata;
+	}
+
+	/**
+	 * if injected singleton beans are cached per field, only used with {@link #setCacheInjectionMetadata(boolean)}
+	 * @param cacheSingletonDependencies
+	 * @since 1.0.6
+	 */
+	public void setCacheSingletonDependencies(boolean cacheSingletonDependencies) {
+		this.cacheSingletonDependencies = cacheSingletonDependencies;
+	}
+
+	/**
+	 * @return if injected singleton beans are cached per field
+	 * @since 1.0.6
+	 */
+	public boolean isCacheSingletonDependencies() {
+		return cacheSingletonDependencies;
+	}
+
+	/**
+	 * if instances of jobs implementing {@link PoolableJob} are reused
+	 * @param poolJobInstances
+	 * @since 1.0.6
+	 */
+	public void setPoolJobInstances(boolean poolJobInstances) {
+		this.poolJobInstances = poolJobInstances;
+	}
+
+	/**
+	 * @return if instances of jobs implementing {@link PoolableJob} are reused
+	 * @since 1.0.6
+	 */
+	public boolean isPoolJobInstances() {
+		return poolJobInstances;
+	}
+
+	/**
+	 * maximum number of idle instances pooled per job class
+	 * @param maxPooledInstances
+	 * @since 1.0.6
+	 */
+	public void setMaxPooledInstances(int maxPooledInstances) {
+		if (maxPooledInstances < 1) {
+			throw new IllegalArgumentException("maxPooledInstances must be greater than 0");
+		}
+		this.maxPooledInstances = maxPooledInstances;
+		this.jobPools.clear();
+	}
+
+	/**
+	 * @return maximum number of idle instances pooled per job class
+	 * @since 1.0.6
+	 */
+	public int getMaxPooledInstances() {
+		return maxPooledInstances;
+	}
+
+	/**
+	 * the listener returning executed {@link PoolableJob}s to the pool
+	 * @return
+	 * @since 1.0.6
+	 */
+	public JobListener getJobPoolListener() {
+		return jobPoolListener;
 	}
 
 	@Override
 	protected Object createJobInstance(final TriggerFiredBundle bundle) throws Exception { //NOPMD
+		Class<? extends Job> jobClass = bundle.getJobDetail().getJobClass();
+		if (poolJobInstances && PoolableJob.class.isAssignableFrom(jobClass)) {
+			PoolableJob job = getJobPool(jobClass).poll();
+			if (null == job) {
+				job = (PoolableJob) BeanUtils.instantiateClass(jobClass);
+				autowire(job);
+			}
+			populate(job, bundle);
+			return job;
+		}
 		final Object job = super.createJobInstance(bundle);
-		beanFactory.autowireBean(job);
+		autowire(job);
 		return job;
 	}
+
+	/**
+	 * sets the job data map and scheduler context entries as bean properties, like {@link SpringBeanJobFactory} does for new instances
+	 * @param job
+	 * @param bundle
+	 */
+	private void populate(Object job, TriggerFiredBundle bundle) {
+		if (!isEligibleForPropertyPopulation(job)) {
+			return;
+		}
+		BeanWrapper bw = PropertyAccessorFactory.forBeanPropertyAccess(job);
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		if (null != schedulerContext) {
+			pvs.addPropertyValues(schedulerContext);
+		}
+		pvs.addPropertyValues(bundle.getJobDetail().getJobDataMap());
+		pvs.addPropertyValues(bundle.getTrigger().getJobDataMap());
+		if (null != ignoredUnknownProperties) {
+			for (String propName : ignoredUnknownProperties) {
+				if (pvs.contains(propName) && !bw.isWritableProperty(propName)) {
+					pvs.removePropertyValue(propName);
+				}
+			}
+			bw.setPropertyValues(pvs);
+		} else {
+			bw.setPropertyValues(pvs, true);
+		}
+	}
+
+	private void autowire(Object job) throws IllegalAccessException {
+		if (cacheInjectionMetadata) {
+			JobInjectionPoints injectionPoints = injectionPointsCache.computeIfAbsent(job.getClass(), this::findInjectionPoints);
+			if (injectionPoints != UNSUPPORTED) {
+				injectionPoints.inject(job, beanFactory, cacheSingletonDependencies);
+				return;
+			}
+		}
+		beanFactory.autowireBean(job);
+	}
+
+	private Queue<PoolableJob> getJobPool(Class<?> jobClass) {
+		return jobPools.computeIfAbsent(jobClass, clazz -> new ArrayBlockingQueue<>(maxPooledInstances));
+	}
+
+	/**
+	 * resets the job and returns it to the pool of its class, if there is space
+	 * @param job
+	 */
+	private void releaseJob(Job job) {
+		if (!poolJobInstances || !(job instanceof PoolableJob)) {
+			return;
+		}
+		boolean reusable;
+		try {
+			reusable = ((PoolableJob) job).reset();
+		} catch (RuntimeException e) {
+			LOGGER.warn("reset of pooled job " + job.getClass().getName() + " failed, instance is discarded");
+			LOGGER.debug(e.getMessage(), e);
+			reusable = false;
+		}
+		if (reusable) {
+			getJobPool(job.getClass()).offer((PoolableJob) job);
+		}
+	}
+
+	private JobInjectionPoints findInjectionPoints(Class<?> jobClass) {
+		List<InjectionField> fields = new ArrayList<>();
+		Class<?> targetClass = jobClass;
+		while (null != targetClass && Object.class != targetClass) {
+			for (Field field : targetClass.getDeclaredFields()) {
+				if (hasUnsupportedAnnotation(field)) {
+					return unsupported(jobClass, field);
+				}
+				Autowired autowired = AnnotatedElementUtils.findMergedAnnotation(field, Autowired.class);
+				boolean inject = hasAnnotation(field, INJECT_ANNOTATION);
+				if (null == autowired && !inject) {
+					continue;
+				}
+				if (Modifier.isStatic(field.getModifiers())) {
+					// not injected by spring either
+					continue;
+				}
+				DependencyDescriptor descriptor = new DependencyDescriptor(field, null == autowired || autowired.required());
+				descriptor.setContainingClass(jobClass);
+				ReflectionUtils.makeAccessible(field);
+				fields.add(new InjectionField(field, descriptor));
+			}
+			for (Method method : targetClass.getDeclaredMethods()) {
+				if (hasUnsupportedAnnotation(method) || hasAnnotation(method, INJECT_ANNOTATION)
+						|| AnnotatedElementUtils.hasAnnotation(method, Autowired.class)) {
+					return unsupported(jobClass, method);
+				}
+			}
+			targetClass = targetClass.getSuperclass();
+		}
+		LOGGER.debug("caching " + fields.size() + " injection points of job class " + jobClass.getName());
+		return new JobInjectionPoints(fields);
+	}
+
+	private static JobInjectionPoints unsupported(Class<?> jobClass, AnnotatedElement element) {
+		LOGGER.debug("job class " + jobClass.getName() + " is autowired by bean factory because of " + element);
+		return UNSUPPORTED;
+	}
+
+	private static boolean hasUnsupportedAnnotation(AnnotatedElement element) {
+		if (AnnotatedElementUtils.hasAnnotation(element, Value.class)) {
+			return true;
+		}
+		for (Annotation annotation : element.getAnnotations()) {
+			if (UNSUPPORTED_ANNOTATIONS.contains(annotation.annotationType().getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasAnnotation(AnnotatedElement element, String annotationType) {
+		for (Annotation annotation : element.getAnnotations()) {
+			if (annotationType.equals(annotation.annotationType().getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * returns the executed or vetoed {@link PoolableJob}s to the pool.
+	 * A job refired immediately (see {@link JobExecutionException#refireImmediately()}) is executed again
+	 * with the same instance, so it's returned after the last execution.
+	 */
+	private class JobPoolListener extends JobListenerSupport {
+
+		@Override
+		public String getName() {
+			return AutowiringSpringBeanJobFactory.class.getSimpleName() + ".jobPool";
+		}
+
+		@Override
+		public void jobExecutionVetoed(JobExecutionContext context) {
+			releaseJob(context.getJobInstance());
+		}
+
+		@Override
+		public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+			if (null != jobException && jobException.refireImmediately()) {
+				return;
+			}
+			releaseJob(context.getJobInstance());
+		}
+	}
+
+	/**
+	 * the cached injection points of one job class
+	 */
+	private static class JobInjectionPoints {
+
+		private final List<InjectionField> fields;
+
+		JobInjectionPoints(List<InjectionField> fields) {
+			this.fields = fields;
+		}
+
+		void inject(Object job, AutowireCapableBeanFactory beanFactory, boolean cacheSingletons) throws IllegalAccessException {
+			for (InjectionField field : fields) {
+				field.inject(job, beanFactory, cacheSingletons);
+			}
+		}
+	}
+
+	/**
+	 * a field to inject, holding the name of the resolved bean and the bean itself if it's a cached singleton
+	 */
+	private static class InjectionField {
+
+		private final Field field;
+		private final DependencyDescriptor descriptor;
+		private volatile String cachedBeanName;
+		private volatile Object cachedValue;
+
+		InjectionField(Field field, DependencyDescriptor descriptor) {
+			this.field = field;
+			this.descriptor = descriptor;
+		}
+
+		void inject(Object job, AutowireCapableBeanFactory beanFactory, boolean cacheSingletons) throws IllegalAccessException {
+			Object value = cachedValue;
+			if (null == value) {
+				String beanName = cachedBeanName;
+				if (null != beanName) {
+					value = beanFactory.getBean(beanName, field.getType());
+				} else {
+					value = resolve(job, beanFactory);
+				}
+				if (cacheSingletons && null != value && null != cachedBeanName && beanFactory.isSingleton(cachedBeanName)) {
+					cachedValue = value;
+				}
+			}
+			if (null != value) {
+				field.set(job, value);
+			}
+		}
+
+		private Object resolve(Object job, AutowireCapableBeanFactory beanFactory) {
+			Set<String> autowiredBeanNames = new LinkedHashSet<>(1);
+			Object value = beanFactory.resolveDependency(descriptor, job.getClass().getName(), autowiredBeanNames, null);
+			// like spring's own shortcut: only a single bean of the field type, no collections or other wrappers
+			if (null != value && autowiredBeanNames.size() == 1) {
+				String beanName = autowiredBeanNames.iterator().next();
+				if (beanFactory.containsBean(beanName) && beanFactory.isTypeMatch(beanName, field.getType())) {
+					cachedBeanName = beanName;
+				}
+			}
+			return value;
+		}
+	}
 }
@@ -0,0 +1,25 @@
+package de.chandre.quartz.spring;
+
+import org.quartz.Job;
+
+/**
+ * Jobs implementing this interface are reused by the {@link AutowiringSpringBeanJobFactory}
+ * if pooling is enabled with <code>quartz.job-factory.pool-job-instances=true</code>.<br>
+ * After the execution the instance is reset and returned to the pool of its class, so it must not keep any state between executions.
+ * Pooled instances are autowired only once, but populated with the job data map properties of each execution.
+ * Properties missing in the job data of the next execution keep their value, so {@link #reset()} should clear them.
+ *
+ * @author André
+ * @since 1.0.6
+ */
+public interface PoolableJob extends Job {
+
+	/**
+	 * called after the execution, before the instance is returned to the pool
+	 *
+	 * @return false if the instance should not be reused
+	 */
+	default boolean reset() {
+		return true;
+	}
+}
@@ -0,0 +1,178 @@
+package de.chandre.quartz.spring;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.quartz.Scheduler;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Starts the scheduler on a background thread, so the rest of the application (e.g. the web server)
+ * doesn't wait for the job store recovery and cluster check-in.<br>
+ * If a {@link QuartzTriggerRegistrar} is given, the triggers are registered on the same thread before starting.
+ * When the scheduler is started, a {@link QuartzSchedulerStartedEvent} is published,
+ * the progress is available with {@link #getState()}.<br>
+ * The {@link org.springframework.scheduling.quartz.SchedulerFactoryBean} must not start the scheduler itself.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class QuartzAsyncSchedulerStarter implements SmartLifecycle, ApplicationEventPublisherAware {
+
+	private static final Log LOGGER = LogFactory.getLog(QuartzAsyncSchedulerStarter.class);
+
+	public enum State {
+		NEW, STARTING, STARTED, FAILED
+	}
+
+	private final Scheduler scheduler;
+	private final QuartzTriggerRegistrar triggerRegistrar;
+
+	private ApplicationEventPublisher eventPublisher;
+
+	private int phase = Integer.MAX_VALUE;
+	private int startupDelay = 0;
+
+	private final CountDownLatch finished = new CountDownLatch(1);
+
+	private volatile State state = State.NEW;
+	private volatile Exception failure;
+	private volatile boolean running = false;
+	private Thread startupThread;
+
+	/**
+	 *
+	 * @param scheduler
+	 * @param triggerRegistrar registers the triggers before starting, may be null
+	 */
+	public QuartzAsyncSchedulerStarter(Scheduler scheduler, QuartzTriggerRegistrar triggerRegistrar) {
+		this.scheduler = scheduler;
+		this.triggerRegistrar = triggerRegistrar;
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+		this.eventPublisher = applicationEventPublisher;
+	}
+
+	@Override
+	public int getPhase() {
+		return phase;
+	}
+
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	public int getStartupDelay() {
+		return startupDelay;
+	}
+
+	/**
+	 * seconds to wait on the background thread before starting the scheduler
+	 * @param startupDelay
+	 */
+	public void setStartupDelay(int startupDelay) {
+		this.startupDelay = startupDelay;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * the reason if the state is {@link State#FAILED}
+	 * @return
+	 */
+	public Exception getFailure() {
+		return failure;
+	}
+
+	/**
+	 * waits until the scheduler has been started or the start failed
+	 * @param timeout
+	 * @param unit
+	 * @return true if the scheduler has been started
+	 * @throws InterruptedException
+	 */
+	public boolean awaitStartup(long timeout, TimeUnit unit) throws InterruptedException {
+		return finished.await(timeout, unit) && State.STARTED == state;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return true;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (State.NEW != state) {
+			return;
+		}
+		state = State.STARTING;
+		running = true;
+		startupThread = new Thread(this::startScheduler, "quartz-async-startup");
+		startupThread.setDaemon(true);
+		startupThread.start();
+	}
+
+	private void startScheduler() {
+		long start = System.currentTimeMillis();
+		try {
+			if (null != triggerRegistrar) {
+				triggerRegistrar.register();
+			}
+			if (startupDelay > 0) {
+				LOGGER.info("starting scheduler in " + startupDelay + " seconds");
+				Thread.sleep(TimeUnit.SECONDS.toMillis(startupDelay));
+			}
+			scheduler.start();
+			long startupTime = System.currentTimeMillis() - start;
+			state = State.STARTED;
+			LOGGER.info("scheduler started in background after " + startupTime + " ms");
+			if (null != eventPublisher) {
+				eventPublisher.publishEvent(new QuartzSchedulerStartedEvent(scheduler, startupTime));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure = e;
+			state = State.FAILED;
+			LOGGER.warn("scheduler start has been interrupted");
+		} catch (Exception e) {
+			failure = e;
+			state = State.FAILED;
+			LOGGER.error("starting scheduler in background failed: " + e.getMessage(), e);
+		} finally {
+			finished.countDown();
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		running = false;
+		if (null != startupThread && startupThread.isAlive()) {
+			startupThread.interrupt();
+			try {
+				startupThread.join(TimeUnit.SECONDS.toMillis(5L));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+}
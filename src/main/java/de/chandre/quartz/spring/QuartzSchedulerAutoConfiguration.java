@@ -1,6 +1,7 @@
 package de.chandre.quartz.spring;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -21,15 +22,23 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.PropertiesFactoryBean;
+import org.springframework.boot.actuate.autoconfigure.ConditionalOnEnabledHealthIndicator;
+import org.springframework.boot.actuate.condition.ConditionalOnEnabledEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.quartz.SchedulerFactoryBean;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.util.CollectionUtils;
@@ -37,7 +46,20 @@ import org.springframework.util.StringUtils;
 
 import de.chandre.quartz.spring.QuartzSchedulerProperties.Persistence;
 import de.chandre.quartz.spring.QuartzSchedulerProperties.SchedulerFactory;
+import de.chandre.quartz.spring.endpoint.QuartzEndpoint;
+import de.chandre.quartz.spring.endpoint.QuartzHealthIndicator;
+import de.chandre.quartz.spring.endpoint.RecentExecutionsJobListener;
+import de.chandre.quartz.spring.listener.AbstractJobMetricsListener;
+import de.chandre.quartz.spring.listener.AbstractTriggerMetricsListener;
+import de.chandre.quartz.spring.listener.JobMetricsListener;
+import de.chandre.quartz.spring.listener.MicrometerJobMetricsListener;
+import de.chandre.quartz.spring.listener.MicrometerTriggerMetricsListener;
 import de.chandre.quartz.spring.listener.TriggerMetricsListener;
+import de.chandre.quartz.spring.metrics.MicrometerQuartzMetrics;
+import de.chandre.quartz.spring.metrics.QuartzMetricsSampler;
+import de.chandre.quartz.spring.metrics.QuartzPublicMetrics;
+import de.chandre.quartz.spring.queue.AbstractQueueService;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * Spring-Boot auto-configuration for Quartz-Scheduler
@@ -47,6 +69,8 @@ import de.chandre.quartz.spring.listener.TriggerMetricsListener;
 @Configuration
 @EnableConfigurationProperties(QuartzSchedulerProperties.class)
 @ConditionalOnClass(Scheduler.class)
+@AutoConfigureAfter(name = {"io.micrometer.spring.autoconfigure.MetricsAutoConfiguration", 
+		"io.micrometer.spring.autoconfigure.CompositeMeterRegistryAutoConfiguration"})
 public class QuartzSchedulerAutoConfiguration {
 	
 	private static final Log LOGGER = LogFactory.getLog(QuartzSchedulerAutoConfiguration.class);
@@ -54,7 +78,23 @@ public class QuartzSchedulerAutoConfiguration {
 	public static final String QUARTZ_PROPERTIES_BEAN_NAME = "quartzProperties";
 	public static final String QUARTZ_SCHEDULER_FACTORY_BEAN_NAME = "autoSchedulerFactory";
 	public static final String QUARTZ_JOB_FACTORY_BEAN_NAME = "autoJobFactory";
+	public static final String QUARTZ_TRIGGER_REGISTRAR_BEAN_NAME = "quartzTriggerRegistrar";
+	public static final String QUARTZ_ASYNC_SCHEDULER_STARTER_BEAN_NAME = "quartzAsyncSchedulerStarter";
 	public static final String QUARTZ_SCHEDULER_METRICS_LISTENER_BEAN_NAME = "quartzMetricsListener";
+	public static final String QUARTZ_SCHEDULER_METRICS_SCHEDULER_LISTENER_BEAN_NAME = "quartzMetricsSchedulerListener";
+	public static final String QUARTZ_SCHEDULER_METRICS_JOB_LISTENER_BEAN_NAME = "quartzMetricsJobListener";
+	public static final String QUARTZ_SCHEDULER_METRICS_JOB_SCHEDULER_LISTENER_BEAN_NAME = "quartzMetricsJobSchedulerListener";
+	public static final String QUARTZ_METRICS_SAMPLER_BEAN_NAME = "quartzMetricsSampler";
+	public static final String QUARTZ_PUBLIC_METRICS_BEAN_NAME = "quartzPublicMetrics";
+	public static final String QUARTZ_MICROMETER_METRICS_BEAN_NAME = "quartzMicrometerMetrics";
+	public static final String QUARTZ_ENDPOINT_BEAN_NAME = "quartzEndpoint";
+	public static final String QUARTZ_ENDPOINT_JOB_LISTENER_BEAN_NAME = "quartzEndpointJobListener";
+	public static final String QUARTZ_HEALTH_INDICATOR_BEAN_NAME = "quartzHealthIndicator";
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Map<String, AbstractQueueService<?>> getQueueServices(ApplicationContext applicationContext) {
+		return (Map) applicationContext.getBeansOfType(AbstractQueueService.class);
+	}
 	
 	@Configuration
 	@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX, name = "enabled", havingValue="true", matchIfMissing = true)
@@ -133,6 +173,10 @@ public class QuartzSchedulerAutoConfiguration {
 			}
 	        AutowiringSpringBeanJobFactory jobFactory = new AutowiringSpringBeanJobFactory();
 	        jobFactory.setApplicationContext(applicationContext);
+	        jobFactory.setCacheInjectionMetadata(properties.getJobFactory().isCacheInjectionMetadata());
+	        jobFactory.setCacheSingletonDependencies(properties.getJobFactory().isCacheSingletonDependencies());
+	        jobFactory.setPoolJobInstances(properties.getJobFactory().isPoolJobInstances());
+	        jobFactory.setMaxPooledInstances(properties.getJobFactory().getMaxPooledInstances());
 	        return jobFactory;
 	    }
 		
@@ -257,13 +301,23 @@ public class QuartzSchedulerAutoConfiguration {
 	        }
 	        factory.setPhase(factorySettings.getPhase());
 	        factory.setStartupDelay(factorySettings.getStartupDelay());
-	        factory.setAutoStartup(factorySettings.isAutoStartup());
+	        if (factorySettings.isAsyncStartup()) {
+	        	LOGGER.info("scheduler will be started in background");
+	        	factory.setAutoStartup(false);
+	        } else {
+	        	factory.setAutoStartup(factorySettings.isAutoStartup());
+	        }
 	        factory.setWaitForJobsToCompleteOnShutdown(factorySettings.isWaitForJobsToCompleteOnShutdown());
 	        factory.setOverwriteExistingJobs(factorySettings.isOverwriteExistingJobs());
 	        factory.setExposeSchedulerInRepository(factorySettings.isExposeSchedulerInRepository());
 	        
 	        factory.setQuartzProperties(quartzProperties);
 	        
+	        if (jobFactory instanceof AutowiringSpringBeanJobFactory 
+	        		&& ((AutowiringSpringBeanJobFactory) jobFactory).isPoolJobInstances()) {
+	        	jobListeners = null != jobListeners ? new ArrayList<>(jobListeners) : new ArrayList<>();
+	        	jobListeners.add(((AutowiringSpringBeanJobFactory) jobFactory).getJobPoolListener());
+	        }
 	        if (!CollectionUtils.isEmpty(jobListeners)) {
 	        	LOGGER.info("configuring " + jobListeners.size() + " job listeners");
 	        	factory.setGlobalJobListeners(jobListeners.toArray(new JobListener[]{}));
@@ -277,12 +331,10 @@ public class QuartzSchedulerAutoConfiguration {
 	        	factory.setSchedulerListeners(schedulerListeners.toArray(new SchedulerListener[]{}));
 	        }
 	        
-	        Collection<Trigger> triggers = getTriggers(applicationContext);
-	        if (null != triggers && !triggers.isEmpty()) {
-	        	factory.setTriggers(triggers.toArray(new Trigger[triggers.size()]));
-	        	LOGGER.info("staring scheduler factory with " + triggers.size() + " job triggers");
+	        if (isRegisteredByRegistrar(factorySettings)) {
+	        	LOGGER.info("staring scheduler factory without job triggers, they are registered before the scheduler is started");
 	        } else {
-	        	LOGGER.info("staring scheduler factory with 0 job triggers");
+	        	setTriggers(factory, applicationContext);
 	        }
 	        
 	        QuartzSchedulerFactoryOverrideHook hook = getQuartzSchedulerFactoryOverrideHook(applicationContext);
@@ -292,6 +344,91 @@ public class QuartzSchedulerAutoConfiguration {
 	        
 			return factory;
 		}
+		
+		/**
+		 * the trigger registrar takes over registering the job triggers if any of its registration modes is enabled
+		 * @param factorySettings scheduler factory settings
+		 * @return true if the job triggers are registered by the {@link QuartzTriggerRegistrar}
+		 */
+		private static boolean isRegisteredByRegistrar(SchedulerFactory factorySettings) {
+			return factorySettings.isDeferredTriggerRegistration() || factorySettings.isBulkTriggerRegistration()
+					|| factorySettings.isReconcileTriggers() || factorySettings.isDeleteOrphanedTriggers();
+		}
+		
+		/**
+		 * matches if any property requires the {@link QuartzTriggerRegistrar}, keep in sync with {@link #isRegisteredByRegistrar(SchedulerFactory)}
+		 */
+		static class TriggerRegistrarCondition extends AnyNestedCondition {
+			
+			TriggerRegistrarCondition() {
+				super(ConfigurationPhase.REGISTER_BEAN);
+			}
+			
+			@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".scheduler-factory", name = "deferred-trigger-registration", havingValue="true", matchIfMissing = false)
+			static class DeferredTriggerRegistration {
+			}
+			
+			@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".scheduler-factory", name = "bulk-trigger-registration", havingValue="true", matchIfMissing = false)
+			static class BulkTriggerRegistration {
+			}
+			
+			@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".scheduler-factory", name = "reconcile-triggers", havingValue="true", matchIfMissing = false)
+			static class ReconcileTriggers {
+			}
+			
+			@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".scheduler-factory", name = "delete-orphaned-triggers", havingValue="true", matchIfMissing = false)
+			static class DeleteOrphanedTriggers {
+			}
+		}
+		
+		private static void setTriggers(SchedulerFactoryBean factory, ApplicationContext applicationContext) {
+	        Collection<Trigger> triggers = getTriggers(applicationContext);
+	        if (null != triggers && !triggers.isEmpty()) {
+	        	factory.setTriggers(triggers.toArray(new Trigger[triggers.size()]));
+	        	LOGGER.info("staring scheduler factory with " + triggers.size() + " job triggers");
+	        } else {
+	        	LOGGER.info("staring scheduler factory with 0 job triggers");
+	        }
+		}
+		
+		@Bean(name = QUARTZ_TRIGGER_REGISTRAR_BEAN_NAME)
+		@ConditionalOnMissingBean(name = QUARTZ_TRIGGER_REGISTRAR_BEAN_NAME)
+		@Conditional(TriggerRegistrarCondition.class)
+		public QuartzTriggerRegistrar quartzTriggerRegistrar(@Lazy Scheduler scheduler,
+				@Autowired(required=false) QuartzSchedulerProperties properties) {
+			if (null == properties) {
+				LOGGER.warn("no QuartzSchedulerProperties found, consider to set quartz.enabled=true in properties");
+				return null;
+			}
+			QuartzTriggerRegistrar registrar = new QuartzTriggerRegistrar(scheduler);
+			registrar.setOverwriteExistingJobs(properties.getSchedulerFactory().isOverwriteExistingJobs());
+			registrar.setBatchSize(properties.getSchedulerFactory().getTriggerRegistrationBatchSize());
+			registrar.setBulkRegistration(properties.getSchedulerFactory().isBulkTriggerRegistration());
+			registrar.setReconcile(properties.getSchedulerFactory().isReconcileTriggers());
+			registrar.setDeleteOrphans(properties.getSchedulerFactory().isDeleteOrphanedTriggers());
+			// the async starter registers the triggers before starting the scheduler
+			registrar.setRegisterOnRefresh(!properties.getSchedulerFactory().isAsyncStartup());
+			// started right before the scheduler factory bean, the lazy scheduler keeps it from being started as dependency first
+			int phase = properties.getSchedulerFactory().getPhase();
+			registrar.setPhase(Integer.MIN_VALUE == phase ? phase : phase - 1);
+			return registrar;
+		}
+		
+		@Bean(name = QUARTZ_ASYNC_SCHEDULER_STARTER_BEAN_NAME)
+		@ConditionalOnMissingBean(name = QUARTZ_ASYNC_SCHEDULER_STARTER_BEAN_NAME)
+		@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".scheduler-factory", name = "async-startup", havingValue="true", matchIfMissing = false)
+		public QuartzAsyncSchedulerStarter quartzAsyncSchedulerStarter(Scheduler scheduler,
+				@Autowired(required=false) QuartzSchedulerProperties properties,
+				@Autowired(required=false) @Qualifier(QUARTZ_TRIGGER_REGISTRAR_BEAN_NAME) QuartzTriggerRegistrar triggerRegistrar) {
+			if (null == properties) {
+				LOGGER.warn("no QuartzSchedulerProperties found, consider to set quartz.enabled=true in properties");
+				return null;
+			}
+			QuartzAsyncSchedulerStarter starter = new QuartzAsyncSchedulerStarter(scheduler, triggerRegistrar);
+			starter.setPhase(properties.getSchedulerFactory().getPhase());
+			starter.setStartupDelay(properties.getSchedulerFactory().getStartupDelay());
+			return starter;
+		}
 	}
 	
 	@Configuration
@@ -300,8 +437,41 @@ public class QuartzSchedulerAutoConfiguration {
 	@AutoConfigureBefore(name=QUARTZ_SCHEDULER_FACTORY_BEAN_NAME)
 	protected static class SchedulerMetricsListenerConfiguration {
 		
+		/**
+		 * preferred if Micrometer is on the classpath and a MeterRegistry is configured
+		 */
+		@Configuration
+		@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+		@ConditionalOnBean(type = "io.micrometer.core.instrument.MeterRegistry")
+		protected static class MicrometerMetricsListenerConfiguration {
+			
+			@Bean(name = QUARTZ_SCHEDULER_METRICS_LISTENER_BEAN_NAME)
+			@ConditionalOnMissingBean(name = QUARTZ_SCHEDULER_METRICS_LISTENER_BEAN_NAME)
+			public MicrometerTriggerMetricsListener micrometerMetricsListener(MeterRegistry meterRegistry,
+					@Autowired(required=false) QuartzSchedulerProperties properties) {
+				if (null == properties) {
+					LOGGER.warn("no QuartzSchedulerProperties found, consider to set quartz.enabled=true in properties");
+					return null;
+				}
+				return new MicrometerTriggerMetricsListener(meterRegistry, properties.getMetrics(),
+						properties.getMetrics().getListenerName());
+			}
+			
+			@Bean(name = QUARTZ_SCHEDULER_METRICS_JOB_LISTENER_BEAN_NAME)
+			@ConditionalOnMissingBean(name = QUARTZ_SCHEDULER_METRICS_JOB_LISTENER_BEAN_NAME)
+			@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".metrics", name = "enable-job-listener", havingValue="true", matchIfMissing = true)
+			public MicrometerJobMetricsListener micrometerJobMetricsListener(MeterRegistry meterRegistry,
+					@Autowired(required=false) QuartzSchedulerProperties properties) {
+				if (null == properties) {
+					LOGGER.warn("no QuartzSchedulerProperties found, consider to set quartz.enabled=true in properties");
+					return null;
+				}
+				return new MicrometerJobMetricsListener(meterRegistry, properties.getMetrics(), null);
+			}
+		}
+		
 		@Bean(name = QUARTZ_SCHEDULER_METRICS_LISTENER_BEAN_NAME)
-		@ConditionalOnMissingBean
+		@ConditionalOnMissingBean(name = QUARTZ_SCHEDULER_METRICS_LISTENER_BEAN_NAME)
 		public TriggerMetricsListener schedulerMetricsListener(@Autowired(required=false) QuartzSchedulerProperties properties) {
 			if (null == properties) {
 				LOGGER.warn("no QuartzSchedulerProperties found, consider to set quartz.enabled=true in properties");
@@ -311,5 +481,102 @@ public class QuartzSchedulerAutoConfiguration {
 					properties.getMetrics().getListenerName());
 			return listener;
 		}
+		
+		@Bean(name = QUARTZ_SCHEDULER_METRICS_SCHEDULER_LISTENER_BEAN_NAME)
+		@ConditionalOnMissingBean(name = QUARTZ_SCHEDULER_METRICS_SCHEDULER_LISTENER_BEAN_NAME)
+		public SchedulerListener schedulerMetricsSchedulerListener(
+				@Qualifier(QUARTZ_SCHEDULER_METRICS_LISTENER_BEAN_NAME) AbstractTriggerMetricsListener<?> metricsListener) {
+			// removes cached metric names of unscheduled triggers
+			return metricsListener.getSchedulerListener();
+		}
+		
+		@Bean(name = QUARTZ_SCHEDULER_METRICS_JOB_LISTENER_BEAN_NAME)
+		@ConditionalOnMissingBean(name = QUARTZ_SCHEDULER_METRICS_JOB_LISTENER_BEAN_NAME)
+		@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".metrics", name = "enable-job-listener", havingValue="true", matchIfMissing = true)
+		public JobMetricsListener schedulerJobMetricsListener(@Autowired(required=false) QuartzSchedulerProperties properties) {
+			if (null == properties) {
+				LOGGER.warn("no QuartzSchedulerProperties found, consider to set quartz.enabled=true in properties");
+				return null;
+			}
+			return new JobMetricsListener(properties.getMetrics(), null);
+		}
+		
+		@Bean(name = QUARTZ_SCHEDULER_METRICS_JOB_SCHEDULER_LISTENER_BEAN_NAME)
+		@ConditionalOnMissingBean(name = QUARTZ_SCHEDULER_METRICS_JOB_SCHEDULER_LISTENER_BEAN_NAME)
+		@ConditionalOnBean(name = QUARTZ_SCHEDULER_METRICS_JOB_LISTENER_BEAN_NAME)
+		public SchedulerListener schedulerJobMetricsSchedulerListener(
+				@Qualifier(QUARTZ_SCHEDULER_METRICS_JOB_LISTENER_BEAN_NAME) AbstractJobMetricsListener<?> jobMetricsListener) {
+			// removes cached metric names of deleted jobs
+			return jobMetricsListener.getSchedulerListener();
+		}
+	}
+	
+	@Configuration
+	@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".metrics", name = "enabled", havingValue="true", matchIfMissing = false)
+	protected static class SchedulerMetricsSamplerConfiguration {
+		
+		@Configuration
+		@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".metrics", name = "enable-pool-gauges", havingValue="true", matchIfMissing = true)
+		@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+		@ConditionalOnBean(type = "io.micrometer.core.instrument.MeterRegistry")
+		protected static class MicrometerMetricsSamplerConfiguration {
+			
+			@Bean(name = QUARTZ_MICROMETER_METRICS_BEAN_NAME)
+			@ConditionalOnMissingBean(name = QUARTZ_MICROMETER_METRICS_BEAN_NAME)
+			public MicrometerQuartzMetrics quartzMicrometerMetrics(MeterRegistry meterRegistry,
+					@Qualifier(QUARTZ_METRICS_SAMPLER_BEAN_NAME) QuartzMetricsSampler sampler) {
+				MicrometerQuartzMetrics metrics = new MicrometerQuartzMetrics(sampler);
+				metrics.bindTo(meterRegistry);
+				return metrics;
+			}
+		}
+		
+		@Bean(name = QUARTZ_METRICS_SAMPLER_BEAN_NAME)
+		@ConditionalOnMissingBean(name = QUARTZ_METRICS_SAMPLER_BEAN_NAME)
+		@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".metrics", name = "enable-pool-gauges", havingValue="true", matchIfMissing = true)
+		public QuartzMetricsSampler quartzMetricsSampler(ApplicationContext applicationContext, QuartzSchedulerProperties properties,
+				@Autowired(required=false) Scheduler scheduler) {
+			return new QuartzMetricsSampler(scheduler, () -> getQueueServices(applicationContext), 
+					properties.getMetrics().getSampleInterval());
+		}
+		
+		@Bean(name = QUARTZ_PUBLIC_METRICS_BEAN_NAME)
+		@ConditionalOnMissingBean(name = QUARTZ_PUBLIC_METRICS_BEAN_NAME)
+		@ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.PublicMetrics")
+		@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".metrics", name = "enable-pool-gauges", havingValue="true", matchIfMissing = true)
+		public QuartzPublicMetrics quartzPublicMetrics(@Qualifier(QUARTZ_METRICS_SAMPLER_BEAN_NAME) QuartzMetricsSampler sampler) {
+			return new QuartzPublicMetrics(sampler);
+		}
+	}
+	
+	@Configuration
+	@ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.AbstractEndpoint")
+	@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX, name = "enabled", havingValue="true", matchIfMissing = true)
+	protected static class QuartzEndpointConfiguration {
+		
+		@Bean(name = QUARTZ_ENDPOINT_JOB_LISTENER_BEAN_NAME)
+		@ConditionalOnMissingBean(name = QUARTZ_ENDPOINT_JOB_LISTENER_BEAN_NAME)
+		@ConditionalOnEnabledEndpoint(QuartzEndpoint.ID)
+		public RecentExecutionsJobListener quartzEndpointJobListener(
+				@Value("${endpoints.quartz.recent-executions:" + RecentExecutionsJobListener.DEFAULT_CAPACITY + "}") int capacity) {
+			return new RecentExecutionsJobListener(capacity);
+		}
+		
+		@Bean(name = QUARTZ_ENDPOINT_BEAN_NAME)
+		@ConditionalOnMissingBean(name = QUARTZ_ENDPOINT_BEAN_NAME)
+		@ConditionalOnEnabledEndpoint(QuartzEndpoint.ID)
+		public QuartzEndpoint quartzEndpoint(ApplicationContext applicationContext, Scheduler scheduler,
+				@Autowired(required=false) @Qualifier(QUARTZ_ENDPOINT_JOB_LISTENER_BEAN_NAME) RecentExecutionsJobListener recentExecutions) {
+			return new QuartzEndpoint(scheduler, () -> getQueueServices(applicationContext), recentExecutions);
+		}
+		
+		@Bean(name = QUARTZ_HEALTH_INDICATOR_BEAN_NAME)
+		@ConditionalOnMissingBean(name = QUARTZ_HEALTH_INDICATOR_BEAN_NAME)
+		@ConditionalOnEnabledHealthIndicator("quartz")
+		@ConditionalOnProperty(prefix = QuartzSchedulerProperties.PREFIX+".scheduler-factory", name = "async-startup", havingValue="true", matchIfMissing = false)
+		public QuartzHealthIndicator quartzHealthIndicator(Scheduler scheduler,
+				@Autowired(required=false) @Qualifier(QUARTZ_ASYNC_SCHEDULER_STARTER_BEAN_NAME) QuartzAsyncSchedulerStarter starter) {
+			return new QuartzHealthIndicator(scheduler, starter);
+		}
 	}
 }
@@ -5,6 +5,8 @@ import java.util.Map;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import de.chandre.quartz.spring.queue.QueueOverflowPolicy;
+
 /**
  * Properties for Spring-Boot auto-configuration for Quartz-Scheduler 
  * @author André Hertwig
@@ -35,6 +37,14 @@ public class QuartzSchedulerProperties {
 	 * scheduler factory settings 
 	 */
 	private SchedulerFactory schedulerFactory = new SchedulerFactory();
+	/*
+	 * queue service settings
+	 */
+	private Queue queue = new Queue();
+	/*
+	 * job factory settings
+	 */
+	private JobFactory jobFactory = new JobFactory();
 	/*
 	 * properties settings
 	 */
@@ -94,6 +104,30 @@ public class QuartzSchedulerProperties {
 		this.schedulerFactory = schedulerFactory;
 	}
 	
+	/**
+	 * settings for queue services, which have to be passed to the service
+	 * @return
+	 */
+	public Queue getQueue() {
+		return queue;
+	}
+
+	public void setQueue(Queue queue) {
+		this.queue = queue;
+	}
+	
+	/**
+	 * settings for the job factory creating the job instances
+	 * @return
+	 */
+	public JobFactory getJobFactory() {
+		return jobFactory;
+	}
+
+	public void setJobFactory(JobFactory jobFactory) {
+		this.jobFactory = jobFactory;
+	}
+	
 	public static class Metrics {
 		
 		private boolean enabled = false;
@@ -107,6 +141,15 @@ public class QuartzSchedulerProperties {
 		private boolean enableJobGauges = true;
 		private boolean enableTriggerGauges = true;
 		
+		private boolean enableJobListener = true;
+		private long counterFlushInterval = 0L;
+		
+		private boolean enablePoolGauges = true;
+		private long sampleInterval = 10000L;
+		
+		private boolean enablePercentileHistogram = true;
+		private double[] percentiles;
+		
 		public boolean isEnabled() {
 			return enabled;
 		}
@@ -170,6 +213,78 @@ public class QuartzSchedulerProperties {
 		public void setEnableTriggerGauges(boolean enableTriggerGauges) {
 			this.enableTriggerGauges = enableTriggerGauges;
 		}
+
+		/**
+		 * if the job metrics listener measuring lag, duration and vetoes per job should be registered
+		 * @return
+		 */
+		public boolean isEnableJobListener() {
+			return enableJobListener;
+		}
+
+		public void setEnableJobListener(boolean enableJobListener) {
+			this.enableJobListener = enableJobListener;
+		}
+
+		/**
+		 * if greater than 0, the counters of the TriggerMetricsListener are buffered and published in this interval (milliseconds)
+		 * @return
+		 */
+		public long getCounterFlushInterval() {
+			return counterFlushInterval;
+		}
+
+		public void setCounterFlushInterval(long counterFlushInterval) {
+			this.counterFlushInterval = counterFlushInterval;
+		}
+
+		/**
+		 * if gauges for busy/available worker threads and the depth of the queue services should be exposed
+		 * @return
+		 */
+		public boolean isEnablePoolGauges() {
+			return enablePoolGauges;
+		}
+
+		public void setEnablePoolGauges(boolean enablePoolGauges) {
+			this.enablePoolGauges = enablePoolGauges;
+		}
+
+		/**
+		 * interval in milliseconds to sample the thread pool and queue gauges
+		 * @return
+		 */
+		public long getSampleInterval() {
+			return sampleInterval;
+		}
+
+		public void setSampleInterval(long sampleInterval) {
+			this.sampleInterval = sampleInterval;
+		}
+
+		/**
+		 * Micrometer only: if the job timers publish a percentile histogram
+		 * @return
+		 */
+		public boolean isEnablePercentileHistogram() {
+			return enablePercentileHistogram;
+		}
+
+		public void setEnablePercentileHistogram(boolean enablePercentileHistogram) {
+			this.enablePercentileHistogram = enablePercentileHistogram;
+		}
+
+		/**
+		 * Micrometer only: percentiles computed by the job timers, e.g. 0.5, 0.95, 0.99
+		 * @return
+		 */
+		public double[] getPercentiles() {
+			return percentiles;
+		}
+
+		public void setPercentiles(double[] percentiles) {
+			this.percentiles = percentiles;
+		}
 	}
 	
 	public static class Persistence {
@@ -229,6 +344,12 @@ public class QuartzSchedulerProperties {
 		private boolean exposeSchedulerInRepository = false;
 		private int phase = Integer.MAX_VALUE;
 		private int startupDelay = 0;
+		private boolean deferredTriggerRegistration = false;
+		private int triggerRegistrationBatchSize = QuartzTriggerRegistrar.DEFAULT_BATCH_SIZE;
+		private boolean bulkTriggerRegistration = false;
+		private boolean reconcileTriggers = false;
+		private boolean deleteOrphanedTriggers = false;
+		private boolean asyncStartup = false;
 
 		public String getSchedulerName() {
 			return schedulerName;
@@ -286,6 +407,83 @@ public class QuartzSchedulerProperties {
 			this.startupDelay = startupDelay;
 		}
 
+		/**
+		 * if true, the trigger beans are not handed to the scheduler factory but registered 
+		 * by {@link QuartzTriggerRegistrar} right before the scheduler is started
+		 * @return false per default
+		 */
+		public boolean isDeferredTriggerRegistration() {
+			return deferredTriggerRegistration;
+		}
+
+		public void setDeferredTriggerRegistration(boolean deferredTriggerRegistration) {
+			this.deferredTriggerRegistration = deferredTriggerRegistration;
+		}
+
+		/**
+		 * number of triggers registered at once if registration is deferred
+		 * @return 100 per default
+		 */
+		public int getTriggerRegistrationBatchSize() {
+			return triggerRegistrationBatchSize;
+		}
+
+		public void setTriggerRegistrationBatchSize(int triggerRegistrationBatchSize) {
+			this.triggerRegistrationBatchSize = triggerRegistrationBatchSize;
+		}
+
+		/**
+		 * if the triggers should be registered like the deferred registration, compared with the stored keys 
+		 * and each batch written with a single call
+		 * @return false per default
+		 */
+		public boolean isBulkTriggerRegistration() {
+			return bulkTriggerRegistration;
+		}
+
+		public void setBulkTriggerRegistration(boolean bulkTriggerRegistration) {
+			this.bulkTriggerRegistration = bulkTriggerRegistration;
+		}
+
+		/**
+		 * if the triggers should be registered like the deferred registration, comparing the fingerprints 
+		 * of the defined and stored jobs and triggers and only writing new or changed ones
+		 * @return false per default
+		 */
+		public boolean isReconcileTriggers() {
+			return reconcileTriggers;
+		}
+
+		public void setReconcileTriggers(boolean reconcileTriggers) {
+			this.reconcileTriggers = reconcileTriggers;
+		}
+
+		/**
+		 * if the triggers should be registered like the deferred registration and stored triggers 
+		 * and durable jobs without bean definition deleted afterwards
+		 * @return false per default
+		 */
+		public boolean isDeleteOrphanedTriggers() {
+			return deleteOrphanedTriggers;
+		}
+
+		public void setDeleteOrphanedTriggers(boolean deleteOrphanedTriggers) {
+			this.deleteOrphanedTriggers = deleteOrphanedTriggers;
+		}
+
+		/**
+		 * if the scheduler (and the deferred trigger registration) should be started on a background thread 
+		 * instead of by the scheduler factory
+		 * @return false per default
+		 */
+		public boolean isAsyncStartup() {
+			return asyncStartup;
+		}
+
+		public void setAsyncStartup(boolean asyncStartup) {
+			this.asyncStartup = asyncStartup;
+		}
+
 		@Override
 		public String toString() {
 			StringBuilder builder = new StringBuilder();
@@ -294,7 +492,227 @@ public class QuartzSchedulerProperties {
 					.append(", waitForJobsToCompleteOnShutdown=").append(waitForJobsToCompleteOnShutdown)
 					.append(", overwriteExistingJobs=").append(overwriteExistingJobs)
 					.append(", exposeSchedulerInRepository=").append(exposeSchedulerInRepository).append(", phase=")
-					.append(phase).append(", startupDelay=").append(startupDelay).append("]");
+					.append(phase).append(", startupDelay=").append(startupDelay)
+					.append(", deferredTriggerRegistration=").append(deferredTriggerRegistration)
+					.append(", triggerRegistrationBatchSize=").append(triggerRegistrationBatchSize)
+					.append(", bulkTriggerRegistration=").append(bulkTriggerRegistration)
+					.append(", reconcileTriggers=").append(reconcileTriggers)
+					.append(", deleteOrphanedTriggers=").append(deleteOrphanedTriggers)
+					.append(", asyncStartup=").append(asyncStartup).append("]");
+			return builder.toString();
+		}
+	}
+
+	public static class Queue {
+		
+		private boolean allowMultipleInstances = false;
+		private int capacity = 0;
+		private Map<String, Integer> groupCapacities = new HashMap<String, Integer>();
+		private QueueOverflowPolicy overflowPolicy = QueueOverflowPolicy.REJECT;
+		private long blockTimeout = 1000L;
+		private boolean prioritized = false;
+		private boolean coalescing = false;
+		private int maxConcurrency = 1;
+		private Map<String, Integer> groupMaxConcurrency = new HashMap<String, Integer>();
+		private int poolSize = 0;
+		private boolean useVirtualThreads = false;
+
+		public boolean isAllowMultipleInstances() {
+			return allowMultipleInstances;
+		}
+
+		public void setAllowMultipleInstances(boolean allowMultipleInstances) {
+			this.allowMultipleInstances = allowMultipleInstances;
+		}
+
+		/**
+		 * maximum number of queued instances per group, 0 for unbounded queues
+		 * @return
+		 */
+		public int getCapacity() {
+			return capacity;
+		}
+
+		public void setCapacity(int capacity) {
+			this.capacity = capacity;
+		}
+
+		/**
+		 * capacities for single groups, overriding {@link #getCapacity()}
+		 * @return
+		 */
+		public Map<String, Integer> getGroupCapacities() {
+			return groupCapacities;
+		}
+
+		public void setGroupCapacities(Map<String, Integer> groupCapacities) {
+			this.groupCapacities = groupCapacities;
+		}
+
+		public QueueOverflowPolicy getOverflowPolicy() {
+			return overflowPolicy;
+		}
+
+		public void setOverflowPolicy(QueueOverflowPolicy overflowPolicy) {
+			this.overflowPolicy = overflowPolicy;
+		}
+
+		/**
+		 * milliseconds to wait for space with {@link QueueOverflowPolicy#BLOCK}
+		 * @return
+		 */
+		public long getBlockTimeout() {
+			return blockTimeout;
+		}
+
+		public void setBlockTimeout(long blockTimeout) {
+			this.blockTimeout = blockTimeout;
+		}
+
+		/**
+		 * if queued instances are executed by priority and deadline instead of first in first out
+		 * @return
+		 */
+		public boolean isPrioritized() {
+			return prioritized;
+		}
+
+		public void setPrioritized(boolean prioritized) {
+			this.prioritized = prioritized;
+		}
+
+		/**
+		 * if a new instance is merged into the waiting one with same key, so there is at most one waiting execution per key
+		 * @return
+		 */
+		public boolean isCoalescing() {
+			return coalescing;
+		}
+
+		public void setCoalescing(boolean coalescing) {
+			this.coalescing = coalescing;
+		}
+
+		/**
+		 * number of instances per group which may run at the same time
+		 * @return
+		 */
+		public int getMaxConcurrency() {
+			return maxConcurrency;
+		}
+
+		public void setMaxConcurrency(int maxConcurrency) {
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		/**
+		 * concurrency of single groups, overriding {@link #getMaxConcurrency()}
+		 * @return
+		 */
+		public Map<String, Integer> getGroupMaxConcurrency() {
+			return groupMaxConcurrency;
+		}
+
+		public void setGroupMaxConcurrency(Map<String, Integer> groupMaxConcurrency) {
+			this.groupMaxConcurrency = groupMaxConcurrency;
+		}
+
+		/**
+		 * number of threads shared by all groups (parallelism of the AsyncQueueServiceImpl), 0 for default
+		 * @return
+		 */
+		public int getPoolSize() {
+			return poolSize;
+		}
+
+		public void setPoolSize(int poolSize) {
+			this.poolSize = poolSize;
+		}
+
+		public boolean isUseVirtualThreads() {
+			return useVirtualThreads;
+		}
+
+		public void setUseVirtualThreads(boolean useVirtualThreads) {
+			this.useVirtualThreads = useVirtualThreads;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			builder.append("Queue [allowMultipleInstances=").append(allowMultipleInstances).append(", capacity=")
+					.append(capacity).append(", groupCapacities=").append(groupCapacities)
+					.append(", overflowPolicy=").append(overflowPolicy).append(", blockTimeout=").append(blockTimeout)
+					.append(", prioritized=").append(prioritized).append(", coalescing=").append(coalescing)
+					.append(", maxConcurrency=").append(maxConcurrency).append(", groupMaxConcurrency=").append(groupMaxConcurrency)
+					.append(", poolSize=").append(poolSize).append(", useVirtualThreads=").append(useVirtualThreads)
+					.append("]");
+			return builder.toString();
+		}
+	}
+
+	public static class JobFactory {
+		
+		private boolean cacheInjectionMetadata = false;
+		private boolean cacheSingletonDependencies = false;
+		private boolean poolJobInstances = false;
+		private int maxPooledInstances = 10;
+
+		/**
+		 * if the injection points of each job class are resolved only once
+		 * @return
+		 */
+		public boolean isCacheInjectionMetadata() {
+			return cacheInjectionMetadata;
+		}
+
+		public void setCacheInjectionMetadata(boolean cacheInjectionMetadata) {
+			this.cacheInjectionMetadata = cacheInjectionMetadata;
+		}
+
+		/**
+		 * if injected singleton beans are cached per job class field
+		 * @return
+		 */
+		public boolean isCacheSingletonDependencies() {
+			return cacheSingletonDependencies;
+		}
+
+		public void setCacheSingletonDependencies(boolean cacheSingletonDependencies) {
+			this.cacheSingletonDependencies = cacheSingletonDependencies;
+		}
+
+		/**
+		 * if instances of jobs implementing PoolableJob are reused
+		 * @return
+		 */
+		public boolean isPoolJobInstances() {
+			return poolJobInstances;
+		}
+
+		public void setPoolJobInstances(boolean poolJobInstances) {
+			this.poolJobInstances = poolJobInstances;
+		}
+
+		/**
+		 * maximum number of idle instances pooled per job class
+		 * @return
+		 */
+		public int getMaxPooledInstances() {
+			return maxPooledInstances;
+		}
+
+		public void setMaxPooledInstances(int maxPooledInstances) {
+			this.maxPooledInstances = maxPooledInstances;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			builder.append("JobFactory [cacheInjectionMetadata=").append(cacheInjectionMetadata)
+					.append(", cacheSingletonDependencies=").append(cacheSingletonDependencies)
+					.append(", poolJobInstances=").append(poolJobInstances)
+					.append(", maxPooledInstances=").append(maxPooledInstances).append("]");
 			return builder.toString();
 		}
 	}
@@ -328,6 +746,7 @@ public class QuartzSchedulerProperties {
 		StringBuilder builder = new StringBuilder();
 		builder.append("QuartzSchedulerProperties [enabled=").append(enabled).append(", metrics=").append(metrics)
 				.append(", persistence=").append(persistence).append(", schedulerFactory=").append(schedulerFactory)
+				.append(", queue=").append(queue).append(", jobFactory=").append(jobFactory)
 				.append(", propertiesConfigLocation=").append(propertiesConfigLocation).append(", properties=")
 				.append(properties).append(", overrideConfigLocationProperties=")
 				.append(overrideConfigLocationProperties).append("]");
@@ -0,0 +1,40 @@
+package de.chandre.quartz.spring;
+
+import org.quartz.Scheduler;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by {@link QuartzAsyncSchedulerStarter} when the scheduler has been started in the background.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class QuartzSchedulerStartedEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long startupTime;
+
+	/**
+	 *
+	 * @param scheduler the started scheduler
+	 * @param startupTime milliseconds the registration and start took
+	 */
+	public QuartzSchedulerStartedEvent(Scheduler scheduler, long startupTime) {
+		super(scheduler);
+		this.startupTime = startupTime;
+	}
+
+	public Scheduler getScheduler() {
+		return (Scheduler) getSource();
+	}
+
+	/**
+	 * milliseconds the trigger registration and the scheduler start took
+	 * @return
+	 */
+	public long getStartupTime() {
+		return startupTime;
+	}
+}
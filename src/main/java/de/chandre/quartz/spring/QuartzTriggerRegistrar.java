@@ -0,0 +1,473 @@
+package de.chandre.quartz.spring;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Registers the {@link Trigger} beans with the scheduler when the application context is started,
+ * instead of handing them to the {@link org.springframework.scheduling.quartz.SchedulerFactoryBean}.
+ * As a {@link SmartLifecycle} with a lower {@link #getPhase() phase} than the SchedulerFactoryBean,
+ * the triggers are registered before the scheduler is started. The registrar must not depend on the SchedulerFactoryBean
+ * (e.g. inject the scheduler <code>@Lazy</code>), otherwise the factory bean is started first as its dependency.<br>
+ * The trigger beans are discovered by name and registered in batches of {@link #getBatchSize()}.
+ * Only trigger beans declared <code>@Lazy</code> are created by the registrar, all others (and their job details)
+ * have already been created with the other singletons.<br>
+ * Registration follows the rules of the SchedulerFactoryBean: existing triggers and jobs are only replaced if
+ * {@link #isOverwriteExistingJobs()} is set, the job detail is taken from the trigger's job data map
+ * (as put there by Spring's trigger factory beans).<br>
+ * With {@link #isBulkRegistration()} the keys of the stored jobs and triggers are read once, 
+ * only new triggers are written, each batch with a single {@link Scheduler#scheduleJobs(Map, boolean)}.
+ * With a JDBC job store this is one transaction per batch instead of one per job and trigger.
+ * If overwriting, stored triggers are compared by fingerprint and only changed ones are rewritten.<br>
+ * With {@link #isReconcile()} the {@link QuartzUtils#getFingerprint(Trigger) fingerprints} of the stored jobs and triggers 
+ * are compared with the defined ones and only new or changed ones are written, so unchanged triggers keep their fire state.
+ * With {@link #isDeleteOrphans()} stored triggers and durable jobs without a bean definition are deleted afterwards.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class QuartzTriggerRegistrar implements SmartLifecycle, ApplicationContextAware {
+
+	private static final Log LOGGER = LogFactory.getLog(QuartzTriggerRegistrar.class);
+
+	public static final int DEFAULT_BATCH_SIZE = 100;
+
+	/**
+	 * key of the job detail in the trigger's job data map, see Spring's trigger factory beans
+	 */
+	public static final String JOB_DETAIL_KEY = "jobDetail";
+
+	private final Scheduler scheduler;
+
+	private ApplicationContext applicationContext;
+
+	private boolean overwriteExistingJobs = false;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private boolean bulkRegistration = false;
+
+	private boolean reconcile = false;
+
+	private boolean deleteOrphans = false;
+
+	private boolean registerOnRefresh = true;
+
+	private int phase = Integer.MAX_VALUE - 1;
+
+	private volatile boolean registered = false;
+
+	private volatile boolean running = false;
+
+	public QuartzTriggerRegistrar(Scheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public void setApplicationContext(ApplicationContext applicationContext) {
+		this.applicationContext = applicationContext;
+	}
+
+	public boolean isOverwriteExistingJobs() {
+		return overwriteExistingJobs;
+	}
+
+	/**
+	 * if existing triggers and jobs should be replaced
+	 * @param overwriteExistingJobs
+	 */
+	public void setOverwriteExistingJobs(boolean overwriteExistingJobs) {
+		this.overwriteExistingJobs = overwriteExistingJobs;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * number of trigger beans created and registered at once
+	 * @param batchSize
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("batchSize must be greater than 0");
+		}
+		this.batchSize = batchSize;
+	}
+
+	public boolean isBulkRegistration() {
+		return bulkRegistration;
+	}
+
+	/**
+	 * if the triggers of a batch should be written with one call after comparing them with the stored keys
+	 * @param bulkRegistration
+	 */
+	public void setBulkRegistration(boolean bulkRegistration) {
+		this.bulkRegistration = bulkRegistration;
+	}
+
+	public boolean isReconcile() {
+		return reconcile;
+	}
+
+	/**
+	 * if only new and changed jobs and triggers should be written, takes precedence over bulk registration and overwriting
+	 * @param reconcile
+	 */
+	public void setReconcile(boolean reconcile) {
+		this.reconcile = reconcile;
+	}
+
+	public boolean isDeleteOrphans() {
+		return deleteOrphans;
+	}
+
+	/**
+	 * if stored triggers and durable jobs without bean definition should be deleted after registration.<br>
+	 * <b>Caution:</b> this deletes jobs and triggers scheduled at runtime, too.
+	 * @param deleteOrphans
+	 */
+	public void setDeleteOrphans(boolean deleteOrphans) {
+		this.deleteOrphans = deleteOrphans;
+	}
+
+	public boolean isRegisterOnRefresh() {
+		return registerOnRefresh;
+	}
+
+	/**
+	 * if the triggers are registered when the context is started on refresh, otherwise {@link #register()} has to be called,
+	 * e.g. by the {@link QuartzAsyncSchedulerStarter}
+	 * @param registerOnRefresh
+	 */
+	public void setRegisterOnRefresh(boolean registerOnRefresh) {
+		this.registerOnRefresh = registerOnRefresh;
+	}
+
+	@Override
+	public int getPhase() {
+		return phase;
+	}
+
+	/**
+	 * has to be lower than the phase of the SchedulerFactoryBean, so the triggers are registered before the scheduler is started
+	 * @param phase
+	 */
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	/**
+	 * if the triggers have been registered
+	 * @return
+	 */
+	public boolean isRegistered() {
+		return registered;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return registerOnRefresh;
+	}
+
+	@Override
+	public void start() {
+		register();
+		running = true;
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * registers the triggers once
+	 */
+	public synchronized void register() {
+		if (registered) {
+			return;
+		}
+		registered = true;
+		registerTriggers();
+	}
+
+	/**
+	 * discovers the trigger beans by name and registers them in batches
+	 */
+	protected void registerTriggers() {
+		// lazy factory beans only match with eager init allowed, which resolves their object type without creating the trigger
+		String[] triggerBeanNames = applicationContext.getBeanNamesForType(Trigger.class, true, true);
+		LOGGER.info("registering " + triggerBeanNames.length + " job triggers in batches of " + batchSize);
+		logCreatedTriggers(triggerBeanNames);
+		long start = System.currentTimeMillis();
+		Set<JobKey> registeredJobs = new HashSet<>();
+		Set<TriggerKey> definedTriggers = new HashSet<>();
+		Set<JobKey> definedJobs = new HashSet<>();
+		Set<TriggerKey> existingTriggers = Collections.emptySet();
+		Set<JobKey> existingJobs = Collections.emptySet();
+		if (bulkRegistration && !reconcile) {
+			try {
+				existingTriggers = scheduler.getTriggerKeys(GroupMatcher.anyTriggerGroup());
+				existingJobs = scheduler.getJobKeys(GroupMatcher.anyJobGroup());
+			} catch (SchedulerException e) {
+				throw new BeanInitializationException("reading the stored triggers failed", e);
+			}
+		}
+		for (int from = 0; from < triggerBeanNames.length; from += batchSize) {
+			List<String> batch = Arrays.asList(triggerBeanNames).subList(from, Math.min(from + batchSize, triggerBeanNames.length));
+			List<Trigger> triggers = new ArrayList<>(batch.size());
+			for (String beanName : batch) {
+				Trigger trigger = applicationContext.getBean(beanName, Trigger.class);
+				if (deleteOrphans) {
+					definedTriggers.add(trigger.getKey());
+					definedJobs.add(trigger.getJobKey());
+				}
+				triggers.add(trigger);
+			}
+			try {
+				registerBatch(triggers, registeredJobs, existingTriggers, existingJobs);
+			} catch (SchedulerException e) {
+				throw new BeanInitializationException("registering triggers " + batch + " failed", e);
+			}
+		}
+		if (deleteOrphans) {
+			// like the triggers, lazy job detail factory beans only match with eager init allowed
+			for (String beanName : applicationContext.getBeanNamesForType(JobDetail.class, true, true)) {
+				definedJobs.add(applicationContext.getBean(beanName, JobDetail.class).getKey());
+			}
+			try {
+				deleteOrphans(definedTriggers, definedJobs);
+			} catch (SchedulerException e) {
+				throw new BeanInitializationException("deleting orphaned triggers failed", e);
+			}
+		}
+		LOGGER.info("registered " + triggerBeanNames.length + " job triggers in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	private void logCreatedTriggers(String[] triggerBeanNames) {
+		if (!LOGGER.isDebugEnabled() || !(applicationContext instanceof ConfigurableApplicationContext)) {
+			return;
+		}
+		ConfigurableListableBeanFactory beanFactory = ((ConfigurableApplicationContext) applicationContext).getBeanFactory();
+		int created = 0;
+		for (String beanName : triggerBeanNames) {
+			if (beanFactory.containsSingleton(beanName)) {
+				created++;
+			}
+		}
+		if (created > 0) {
+			LOGGER.debug(created + " of " + triggerBeanNames.length + " triggers have been created before, declare them @Lazy to defer their creation");
+		}
+	}
+
+	/**
+	 * registers the triggers and their jobs
+	 * @param triggers
+	 * @param registeredJobs the jobs already registered by this registrar, is updated
+	 * @param existingTriggers the keys of the stored triggers, read for bulk registration only
+	 * @param existingJobs the keys of the stored jobs, read for bulk registration only
+	 * @throws SchedulerException
+	 */
+	protected void registerBatch(List<Trigger> triggers, Set<JobKey> registeredJobs, 
+			Set<TriggerKey> existingTriggers, Set<JobKey> existingJobs) throws SchedulerException {
+		if (reconcile) {
+			int written = 0;
+			for (Trigger trigger : triggers) {
+				if (reconcileTrigger(trigger, registeredJobs)) {
+					written++;
+				}
+			}
+			LOGGER.debug("reconciled " + triggers.size() + " triggers, " + written + " new or changed");
+			return;
+		}
+		if (bulkRegistration) {
+			registerBulk(triggers, registeredJobs, existingTriggers, existingJobs);
+			return;
+		}
+		for (Trigger trigger : triggers) {
+			registerTrigger(trigger, registeredJobs);
+		}
+	}
+
+	/**
+	 * writes the new triggers and jobs with one call, triggers of already stored jobs which must not be overwritten 
+	 * are scheduled one by one. If overwriting, stored triggers and their jobs are only rewritten if changed, 
+	 * see {@link #reconcileTrigger(Trigger, Set)}
+	 * @param triggers
+	 * @param registeredJobs
+	 * @param existingTriggers
+	 * @param existingJobs
+	 * @throws SchedulerException
+	 */
+	protected void registerBulk(List<Trigger> triggers, Set<JobKey> registeredJobs, 
+			Set<TriggerKey> existingTriggers, Set<JobKey> existingJobs) throws SchedulerException {
+		Map<JobDetail, Set<? extends Trigger>> jobsAndTriggers = new LinkedHashMap<>();
+		List<Trigger> single = new ArrayList<>();
+		int skipped = 0;
+		int changed = 0;
+		for (Trigger trigger : triggers) {
+			JobDetail jobDetail = getJobDetail(trigger);
+			if (existingTriggers.contains(trigger.getKey())) {
+				if (overwriteExistingJobs && reconcileTrigger(trigger, jobDetail, registeredJobs)) {
+					changed++;
+				} else {
+					skipped++;
+				}
+			} else if (null == jobDetail) {
+				single.add(trigger);
+			} else if (!registeredJobs.contains(jobDetail.getKey()) 
+					&& (overwriteExistingJobs || !existingJobs.contains(jobDetail.getKey()))) {
+				@SuppressWarnings("unchecked")
+				Set<Trigger> jobTriggers = (Set<Trigger>) jobsAndTriggers.computeIfAbsent(jobDetail, key -> new LinkedHashSet<>());
+				jobTriggers.add(trigger);
+			} else {
+				single.add(trigger);
+			}
+		}
+		if (!jobsAndTriggers.isEmpty()) {
+			scheduler.scheduleJobs(jobsAndTriggers, overwriteExistingJobs);
+			for (JobDetail jobDetail : jobsAndTriggers.keySet()) {
+				registeredJobs.add(jobDetail.getKey());
+			}
+		}
+		for (Trigger trigger : single) {
+			registerTrigger(trigger, registeredJobs);
+		}
+		LOGGER.debug("registered " + (triggers.size() - skipped - changed - single.size()) + " triggers in bulk, " 
+				+ single.size() + " single, " + changed + " changed, skipped " + skipped + " existing");
+	}
+
+	/**
+	 * registers the trigger like {@link org.springframework.scheduling.quartz.SchedulerAccessor} does
+	 * @param trigger
+	 * @param registeredJobs
+	 * @return true if the trigger has been scheduled or rescheduled
+	 * @throws SchedulerException
+	 */
+	protected boolean registerTrigger(Trigger trigger, Set<JobKey> registeredJobs) throws SchedulerException {
+		boolean triggerExists = (null != scheduler.getTrigger(trigger.getKey()));
+		if (triggerExists && !overwriteExistingJobs) {
+			return false;
+		}
+		JobDetail jobDetail = getJobDetail(trigger);
+		if (triggerExists) {
+			if (null != jobDetail && registeredJobs.add(jobDetail.getKey())) {
+				scheduler.addJob(jobDetail, true, true);
+			}
+			scheduler.rescheduleJob(trigger.getKey(), trigger);
+		} else {
+			if (null != jobDetail && registeredJobs.add(jobDetail.getKey())) {
+				if (null == scheduler.getJobDetail(jobDetail.getKey())) {
+					scheduler.scheduleJob(jobDetail, trigger);
+					return true;
+				}
+				if (overwriteExistingJobs) {
+					scheduler.addJob(jobDetail, true, true);
+				}
+			}
+			scheduler.scheduleJob(trigger);
+		}
+		return true;
+	}
+
+	/**
+	 * writes the trigger and its job only if they are new or their fingerprint differs from the stored one
+	 * @param trigger
+	 * @param registeredJobs
+	 * @return true if the trigger has been scheduled or rescheduled
+	 * @throws SchedulerException
+	 */
+	protected boolean reconcileTrigger(Trigger trigger, Set<JobKey> registeredJobs) throws SchedulerException {
+		return reconcileTrigger(trigger, getJobDetail(trigger), registeredJobs);
+	}
+
+	private boolean reconcileTrigger(Trigger trigger, JobDetail jobDetail, Set<JobKey> registeredJobs) throws SchedulerException {
+		if (null != jobDetail && registeredJobs.add(jobDetail.getKey())) {
+			JobDetail storedJob = scheduler.getJobDetail(jobDetail.getKey());
+			if (null == storedJob || !QuartzUtils.getFingerprint(storedJob).equals(QuartzUtils.getFingerprint(jobDetail))) {
+				LOGGER.debug((null == storedJob ? "adding job " : "updating changed job ") + jobDetail.getKey());
+				scheduler.addJob(jobDetail, true, true);
+			}
+		}
+		Trigger storedTrigger = scheduler.getTrigger(trigger.getKey());
+		if (null == storedTrigger) {
+			scheduler.scheduleJob(trigger);
+			return true;
+		}
+		if (!QuartzUtils.getFingerprint(storedTrigger).equals(QuartzUtils.getFingerprint(trigger))) {
+			LOGGER.debug("rescheduling changed trigger " + trigger.getKey());
+			scheduler.rescheduleJob(trigger.getKey(), trigger);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * deletes the stored triggers and durable jobs which are not defined as beans, 
+	 * non-durable jobs are deleted by the scheduler with their last trigger
+	 * @param definedTriggers
+	 * @param definedJobs
+	 * @throws SchedulerException
+	 */
+	protected void deleteOrphans(Set<TriggerKey> definedTriggers, Set<JobKey> definedJobs) throws SchedulerException {
+		int deletedTriggers = 0;
+		for (TriggerKey triggerKey : scheduler.getTriggerKeys(GroupMatcher.anyTriggerGroup())) {
+			if (!definedTriggers.contains(triggerKey) && scheduler.unscheduleJob(triggerKey)) {
+				deletedTriggers++;
+			}
+		}
+		int deletedJobs = 0;
+		for (JobKey jobKey : scheduler.getJobKeys(GroupMatcher.anyJobGroup())) {
+			if (!definedJobs.contains(jobKey) && scheduler.deleteJob(jobKey)) {
+				deletedJobs++;
+			}
+		}
+		LOGGER.info("deleted " + deletedTriggers + " orphaned triggers and " + deletedJobs + " orphaned jobs");
+	}
+
+	/**
+	 * removes the job detail from the trigger's job data map, it must not be stored with the trigger
+	 * @param trigger
+	 * @return the job detail or null
+	 */
+	protected static JobDetail getJobDetail(Trigger trigger) {
+		return (JobDetail) trigger.getJobDataMap().remove(JOB_DETAIL_KEY);
+	}
+}
@@ -1,18 +1,25 @@
 package de.chandre.quartz.spring;
 
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
+import org.quartz.CalendarIntervalTrigger;
 import org.quartz.CronTrigger;
+import org.quartz.DailyTimeIntervalTrigger;
 import org.quartz.Job;
+import org.quartz.JobDataMap;
 import org.quartz.JobDetail;
 import org.quartz.SimpleTrigger;
 import org.quartz.Trigger;
 import org.springframework.scheduling.quartz.CronTriggerFactoryBean;
 import org.springframework.scheduling.quartz.JobDetailFactoryBean;
 import org.springframework.scheduling.quartz.SimpleTriggerFactoryBean;
+import org.springframework.util.DigestUtils;
 
 /**
  * Convenience methods for creating {@link JobDetail}s and {@link Trigger}s for a Spring managed environment
@@ -675,4 +682,64 @@ public class QuartzUtils {
 				.misfireInstruction(misfireInstruction).putJobData(jobData).timeZone(timeZone).startTime(startTime)
 				.priority(priority).getTriggerFactoryBean();
 	}
+	
+	/**
+	 * returns a fingerprint of the job definition: key, class, description, flags and job data.<br>
+	 * The fingerprints of a stored and a newly created job are equal if the definition hasn't changed.
+	 * 
+	 * @param jobDetail
+	 * @return
+	 */
+	public static String getFingerprint(JobDetail jobDetail) {
+		StringBuilder builder = new StringBuilder();
+		builder.append(jobDetail.getKey()).append('|').append(jobDetail.getJobClass().getName())
+			.append('|').append(jobDetail.getDescription())
+			.append('|').append(jobDetail.isDurable()).append('|').append(jobDetail.requestsRecovery())
+			.append('|').append(toSortedString(jobDetail.getJobDataMap()));
+		return DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * returns a fingerprint of the trigger definition: key, job, schedule, misfire instruction, priority and job data.<br>
+	 * The start time is not part of it, because trigger factory beans calculate it from the start delay on each start.
+	 * 
+	 * @param trigger
+	 * @return
+	 */
+	public static String getFingerprint(Trigger trigger) {
+		StringBuilder builder = new StringBuilder();
+		builder.append(trigger.getKey()).append('|').append(trigger.getJobKey())
+			.append('|').append(trigger.getDescription()).append('|').append(trigger.getCalendarName())
+			.append('|').append(trigger.getMisfireInstruction()).append('|').append(trigger.getPriority())
+			.append('|').append(null != trigger.getEndTime() ? trigger.getEndTime().getTime() : null)
+			.append('|').append(toSortedString(trigger.getJobDataMap()));
+		if (trigger instanceof CronTrigger) {
+			CronTrigger cronTrigger = (CronTrigger) trigger;
+			builder.append("|cron|").append(cronTrigger.getCronExpression())
+				.append('|').append(cronTrigger.getTimeZone().getID());
+		} else if (trigger instanceof SimpleTrigger) {
+			SimpleTrigger simpleTrigger = (SimpleTrigger) trigger;
+			builder.append("|simple|").append(simpleTrigger.getRepeatInterval())
+				.append('|').append(simpleTrigger.getRepeatCount());
+		} else if (trigger instanceof CalendarIntervalTrigger) {
+			CalendarIntervalTrigger intervalTrigger = (CalendarIntervalTrigger) trigger;
+			builder.append("|calendar|").append(intervalTrigger.getRepeatInterval())
+				.append('|').append(intervalTrigger.getRepeatIntervalUnit())
+				.append('|').append(intervalTrigger.getTimeZone().getID());
+		} else if (trigger instanceof DailyTimeIntervalTrigger) {
+			DailyTimeIntervalTrigger dailyTrigger = (DailyTimeIntervalTrigger) trigger;
+			builder.append("|daily|").append(dailyTrigger.getRepeatInterval())
+				.append('|').append(dailyTrigger.getRepeatIntervalUnit())
+				.append('|').append(dailyTrigger.getRepeatCount())
+				.append('|').append(dailyTrigger.getStartTimeOfDay()).append('|').append(dailyTrigger.getEndTimeOfDay())
+				.append('|').append(new TreeSet<>(dailyTrigger.getDaysOfWeek()));
+		} else {
+			builder.append('|').append(trigger.getClass().getName());
+		}
+		return DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static String toSortedString(JobDataMap jobDataMap) {
+		return null != jobDataMap ? new TreeMap<>(jobDataMap.getWrappedMap()).toString() : "{}";
+	}
 }
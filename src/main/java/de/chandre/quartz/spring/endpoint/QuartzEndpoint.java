@@ -0,0 +1,225 @@
+package de.chandre.quartz.spring.endpoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SchedulerMetaData;
+import org.quartz.Trigger;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import de.chandre.quartz.spring.queue.AbstractQueueService;
+
+/**
+ * Actuator endpoint exposing the state of the scheduler: jobs with their triggers and next fire times,
+ * currently executing jobs, queued instances of the queue services and the latest executions.<br>
+ * The state is collected at most once per {@link #getTimeToLive()}, all other requests get the cached one,
+ * so polling the endpoint doesn't hammer a JDBC job store.
+ * If the state is being collected, concurrent requests get the previous state instead of waiting.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+@ConfigurationProperties(prefix = "endpoints.quartz")
+public class QuartzEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+	private static final Log LOG = LogFactory.getLog(QuartzEndpoint.class);
+
+	public static final String ID = "quartz";
+
+	private final Scheduler scheduler;
+	private final Supplier<Map<String, AbstractQueueService<?>>> queueServiceSupplier;
+	private final RecentExecutionsJobListener recentExecutions;
+
+	private long timeToLive = 10000L;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private volatile Map<String, Object> cached;
+	private volatile long cachedAt;
+
+	/**
+	 *
+	 * @param scheduler
+	 * @param queueServiceSupplier supplies the queue services by bean name, may be null
+	 * @param recentExecutions the listener recording the executions, may be null
+	 */
+	public QuartzEndpoint(Scheduler scheduler, Supplier<Map<String, AbstractQueueService<?>>> queueServiceSupplier,
+			RecentExecutionsJobListener recentExecutions) {
+		super(ID);
+		this.scheduler = scheduler;
+		this.queueServiceSupplier = queueServiceSupplier;
+		this.recentExecutions = recentExecutions;
+	}
+
+	/**
+	 * time in milliseconds the collected state is cached
+	 * @return 10000 per default
+	 */
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	@Override
+	public Map<String, Object> invoke() {
+		Map<String, Object> state = this.cached;
+		if (null != state && System.currentTimeMillis() - cachedAt < timeToLive) {
+			return state;
+		}
+		if (null != state && !lock.tryLock()) {
+			// another request is collecting
+			return state;
+		}
+		if (null == state) {
+			lock.lock();
+		}
+		try {
+			if (null == this.cached || System.currentTimeMillis() - cachedAt >= timeToLive) {
+				this.cached = Collections.unmodifiableMap(collect());
+				this.cachedAt = System.currentTimeMillis();
+			}
+			return this.cached;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * collects the current state
+	 * @return
+	 */
+	protected Map<String, Object> collect() {
+		long now = System.currentTimeMillis();
+		Map<String, Object> state = new LinkedHashMap<>();
+		state.put("timestamp", now);
+		try {
+			state.put("scheduler", collectScheduler());
+			state.put("jobs", collectJobs());
+			state.put("executing", collectExecuting(now));
+		} catch (SchedulerException e) {
+			LOG.warn("unable to collect scheduler state: " + e.getMessage());
+			LOG.debug(e.getMessage(), e);
+			state.put("error", e.getMessage());
+		}
+		state.put("queues", collectQueues(now));
+		if (null != recentExecutions) {
+			state.put("recentExecutions", collectRecentExecutions());
+		}
+		return state;
+	}
+
+	private Map<String, Object> collectScheduler() throws SchedulerException {
+		SchedulerMetaData metaData = scheduler.getMetaData();
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("name", metaData.getSchedulerName());
+		map.put("instanceId", metaData.getSchedulerInstanceId());
+		map.put("started", metaData.isStarted());
+		map.put("standby", metaData.isInStandbyMode());
+		map.put("shutdown", metaData.isShutdown());
+		map.put("threadPoolSize", metaData.getThreadPoolSize());
+		map.put("jobStore", metaData.getJobStoreClass().getName());
+		map.put("clustered", metaData.isJobStoreClustered());
+		map.put("jobsExecuted", metaData.getNumberOfJobsExecuted());
+		return map;
+	}
+
+	private List<Map<String, Object>> collectJobs() throws SchedulerException {
+		List<Map<String, Object>> jobs = new ArrayList<>();
+		for (String group : scheduler.getJobGroupNames()) {
+			for (JobKey jobKey : scheduler.getJobKeys(GroupMatcher.jobGroupEquals(group))) {
+				JobDetail jobDetail = scheduler.getJobDetail(jobKey);
+				if (null == jobDetail) {
+					// deleted in the meantime
+					continue;
+				}
+				Map<String, Object> job = new LinkedHashMap<>();
+				job.put("group", jobKey.getGroup());
+				job.put("name", jobKey.getName());
+				job.put("description", jobDetail.getDescription());
+				job.put("jobClass", jobDetail.getJobClass().getName());
+				job.put("durable", jobDetail.isDurable());
+				List<Map<String, Object>> triggers = new ArrayList<>();
+				for (Trigger trigger : scheduler.getTriggersOfJob(jobKey)) {
+					Map<String, Object> map = new LinkedHashMap<>();
+					map.put("group", trigger.getKey().getGroup());
+					map.put("name", trigger.getKey().getName());
+					map.put("state", scheduler.getTriggerState(trigger.getKey()).name());
+					map.put("previousFireTime", trigger.getPreviousFireTime());
+					map.put("nextFireTime", trigger.getNextFireTime());
+					triggers.add(map);
+				}
+				job.put("triggers", triggers);
+				jobs.add(job);
+			}
+		}
+		return jobs;
+	}
+
+	private List<Map<String, Object>> collectExecuting(long now) throws SchedulerException {
+		List<Map<String, Object>> executing = new ArrayList<>();
+		for (JobExecutionContext context : scheduler.getCurrentlyExecutingJobs()) {
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put("job", context.getJobDetail().getKey().toString());
+			map.put("trigger", context.getTrigger().getKey().toString());
+			map.put("fireTime", context.getFireTime());
+			map.put("elapsed", Math.max(0L, now - context.getFireTime().getTime()));
+			executing.add(map);
+		}
+		return executing;
+	}
+
+	private List<Map<String, Object>> collectQueues(long now) {
+		List<Map<String, Object>> queues = new ArrayList<>();
+		Map<String, AbstractQueueService<?>> queueServices = null != queueServiceSupplier ? queueServiceSupplier.get() : null;
+		if (null == queueServices) {
+			return queues;
+		}
+		for (Map.Entry<String, AbstractQueueService<?>> entry : queueServices.entrySet()) {
+			AbstractQueueService<?> queueService = entry.getValue();
+			for (String group : queueService.getGroups()) {
+				long oldestQueuedAt = queueService.getOldestQueuedAt(group);
+				Map<String, Object> map = new LinkedHashMap<>();
+				map.put("service", entry.getKey());
+				map.put("group", group);
+				map.put("size", queueService.getQueueSize(group));
+				map.put("oldestAge", oldestQueuedAt < 0L ? 0L : Math.max(0L, now - oldestQueuedAt));
+				map.put("keys", queueService.getQueuedKeys(group));
+				queues.add(map);
+			}
+		}
+		return queues;
+	}
+
+	private List<Map<String, Object>> collectRecentExecutions() {
+		List<Map<String, Object>> executions = new ArrayList<>();
+		for (RecentExecutionsJobListener.Execution execution : recentExecutions.getExecutions()) {
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put("job", execution.getJobKey().toString());
+			map.put("trigger", execution.getTriggerKey().toString());
+			map.put("fireTime", execution.getFireTime());
+			map.put("lag", execution.getLag());
+			map.put("duration", execution.getDuration());
+			map.put("failed", execution.isFailed());
+			executions.add(map);
+		}
+		return executions;
+	}
+}
@@ -0,0 +1,60 @@
+package de.chandre.quartz.spring.endpoint;
+
+import org.quartz.Scheduler;
+import org.quartz.SchedulerMetaData;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health.Builder;
+
+import de.chandre.quartz.spring.QuartzAsyncSchedulerStarter;
+
+/**
+ * Health of the scheduler.<br>
+ * If the scheduler is started in the background, the startup state is added as detail, it is up while starting 
+ * (the application already serves requests, readiness is signaled by the {@link de.chandre.quartz.spring.QuartzSchedulerStartedEvent}) 
+ * and down if the start failed. A shut down scheduler is down.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class QuartzHealthIndicator extends AbstractHealthIndicator {
+
+	private final Scheduler scheduler;
+	private final QuartzAsyncSchedulerStarter starter;
+
+	/**
+	 *
+	 * @param scheduler
+	 * @param starter the background starter, may be null
+	 */
+	public QuartzHealthIndicator(Scheduler scheduler, QuartzAsyncSchedulerStarter starter) {
+		this.scheduler = scheduler;
+		this.starter = starter;
+	}
+
+	@Override
+	protected void doHealthCheck(Builder builder) throws Exception {
+		if (null != starter) {
+			builder.withDetail("startup", starter.getState().name());
+			if (QuartzAsyncSchedulerStarter.State.STARTING == starter.getState()) {
+				builder.up();
+				return;
+			}
+			if (QuartzAsyncSchedulerStarter.State.FAILED == starter.getState()) {
+				builder.down(starter.getFailure());
+				return;
+			}
+		}
+		SchedulerMetaData metaData = scheduler.getMetaData();
+		builder.withDetail("name", metaData.getSchedulerName())
+			.withDetail("instanceId", metaData.getSchedulerInstanceId())
+			.withDetail("started", metaData.isStarted())
+			.withDetail("standby", metaData.isInStandbyMode())
+			.withDetail("jobsExecuted", metaData.getNumberOfJobsExecuted());
+		if (metaData.isShutdown()) {
+			builder.down();
+		} else {
+			builder.up();
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package de.chandre.quartz.spring.endpoint;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.quartz.TriggerKey;
+import org.quartz.listeners.JobListenerSupport;
+
+/**
+ * Keeps the latest job executions with their lag and duration for the {@link QuartzEndpoint}.<br>
+ * Recording is a single append to a bounded buffer, so it doesn't slow down the worker threads.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class RecentExecutionsJobListener extends JobListenerSupport {
+
+	public static final int DEFAULT_CAPACITY = 20;
+
+	private final int capacity;
+
+	private final Deque<Execution> executions;
+
+	public RecentExecutionsJobListener() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 *
+	 * @param capacity maximum number of kept executions
+	 */
+	public RecentExecutionsJobListener(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be greater than 0");
+		}
+		this.capacity = capacity;
+		this.executions = new ArrayDeque<>(capacity);
+	}
+
+	@Override
+	public String getName() {
+		return getClass().getSimpleName();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+		Date scheduled = context.getScheduledFireTime();
+		long lag = null != scheduled ? Math.max(0L, context.getFireTime().getTime() - scheduled.getTime()) : -1L;
+		Execution execution = new Execution(context.getJobDetail().getKey(), context.getTrigger().getKey(),
+				context.getFireTime(), lag, context.getJobRunTime(), null != jobException);
+		synchronized (executions) {
+			if (executions.size() == capacity) {
+				executions.pollFirst();
+			}
+			executions.addLast(execution);
+		}
+	}
+
+	/**
+	 * the latest executions, newest first
+	 * @return a copy
+	 */
+	public List<Execution> getExecutions() {
+		List<Execution> list;
+		synchronized (executions) {
+			list = new ArrayList<>(executions);
+		}
+		Collections.reverse(list);
+		return list;
+	}
+
+	/**
+	 * one finished job execution
+	 */
+	public static class Execution {
+
+		private final JobKey jobKey;
+		private final TriggerKey triggerKey;
+		private final Date fireTime;
+		private final long lag;
+		private final long duration;
+		private final boolean failed;
+
+		Execution(JobKey jobKey, TriggerKey triggerKey, Date fireTime, long lag, long duration, boolean failed) {
+			this.jobKey = jobKey;
+			this.triggerKey = triggerKey;
+			this.fireTime = fireTime;
+			this.lag = lag;
+			this.duration = duration;
+			this.failed = failed;
+		}
+
+		public JobKey getJobKey() {
+			return jobKey;
+		}
+
+		public TriggerKey getTriggerKey() {
+			return triggerKey;
+		}
+
+		public Date getFireTime() {
+			return fireTime;
+		}
+
+		/**
+		 * milliseconds between scheduled and actual fire time, -1 if not scheduled
+		 * @return
+		 */
+		public long getLag() {
+			return lag;
+		}
+
+		/**
+		 * run time in milliseconds
+		 * @return
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		public boolean isFailed() {
+			return failed;
+		}
+	}
+}
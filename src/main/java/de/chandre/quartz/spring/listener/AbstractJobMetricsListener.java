@@ -0,0 +1,174 @@
+package de.chandre.quartz.spring.listener;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.quartz.SchedulerListener;
+import org.quartz.listeners.JobListenerSupport;
+import org.quartz.listeners.SchedulerListenerSupport;
+import org.springframework.util.StringUtils;
+
+import de.chandre.quartz.spring.QuartzSchedulerProperties.Metrics;
+
+/**
+ * Base for metrics listeners measuring the job executions, which a trigger listener is not able to see:
+ * <ul>
+ * <li>lag: the time between the scheduled fire time and the actual fire time of the trigger.
+ * A growing lag means the worker threads are saturated</li>
+ * <li>duration: the run time of the job, separated by success and failure</li>
+ * <li>vetoes: executions vetoed by a trigger listener</li>
+ * </ul>
+ * The metrics are created once per job and cached until the job is deleted (see {@link #getSchedulerListener()}).
+ *
+ * @see AbstractTriggerMetricsListener
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ * @param <T> the type of the cached metrics
+ */
+public abstract class AbstractJobMetricsListener<T> extends JobListenerSupport {
+
+	private final Metrics metricSettings;
+	private final String name;
+
+	private final Map<JobKey, T> jobMetrics = new ConcurrentHashMap<>();
+
+	private final SchedulerListener schedulerListener = new JobMetricsEvictionListener();
+
+	protected AbstractJobMetricsListener(Metrics metrics, String name) {
+		this.metricSettings = metrics;
+		this.name = StringUtils.isEmpty(name) ? getClass().getSimpleName() : name;
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	public Metrics getMetricSettings() {
+		return metricSettings;
+	}
+
+	/**
+	 * listener removing the cached metrics of deleted jobs. Has to be registered at the scheduler.
+	 * @return
+	 */
+	public SchedulerListener getSchedulerListener() {
+		return schedulerListener;
+	}
+
+	/**
+	 * the number of jobs with cached metrics
+	 * @return
+	 */
+	public int getCachedJobCount() {
+		return this.jobMetrics.size();
+	}
+
+	/**
+	 * creates the metrics of the job
+	 * @param jobKey
+	 * @return
+	 */
+	protected abstract T createJobMetrics(JobKey jobKey);
+
+	/**
+	 * called with the metrics removed from the cache, e.g. to unregister meters
+	 * @param metrics
+	 */
+	protected void metricsEvicted(T metrics) {
+	}
+
+	/**
+	 * records the time between scheduled and actual fire time
+	 * @param metrics
+	 * @param lagMillis
+	 */
+	protected abstract void recordLag(T metrics, long lagMillis);
+
+	/**
+	 * records the run time of the job
+	 * @param metrics
+	 * @param durationMillis
+	 * @param failed true, if the job has thrown an exception
+	 */
+	protected abstract void recordExecution(T metrics, long durationMillis, boolean failed);
+
+	/**
+	 * records a vetoed execution
+	 * @param metrics
+	 */
+	protected abstract void recordVeto(T metrics);
+
+	/**
+	 * returns the cached metrics of the job, creates them if the job is unknown
+	 * @param jobKey
+	 * @return
+	 */
+	protected T getJobMetrics(JobKey jobKey) {
+		return this.jobMetrics.computeIfAbsent(jobKey, this::createJobMetrics);
+	}
+
+	private void evict(JobKey jobKey) {
+		T metrics = this.jobMetrics.remove(jobKey);
+		if (null != metrics) {
+			metricsEvicted(metrics);
+		}
+	}
+
+	/**
+	 * the time between scheduled and actual fire time, -1 if the execution has not been scheduled,
+	 * e.g. triggered manually
+	 * @param context
+	 * @return
+	 */
+	protected static long getLag(JobExecutionContext context) {
+		Date scheduled = context.getScheduledFireTime();
+		Date fired = context.getFireTime();
+		if (null == scheduled || null == fired) {
+			return -1L;
+		}
+		return Math.max(0L, fired.getTime() - scheduled.getTime());
+	}
+
+	@Override
+	public void jobToBeExecuted(JobExecutionContext context) {
+		long lag = getLag(context);
+		if (lag >= 0) {
+			recordLag(getJobMetrics(context.getJobDetail().getKey()), lag);
+		}
+	}
+
+	@Override
+	public void jobExecutionVetoed(JobExecutionContext context) {
+		recordVeto(getJobMetrics(context.getJobDetail().getKey()));
+	}
+
+	@Override
+	public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+		if (context.getJobRunTime() != -1) {
+			recordExecution(getJobMetrics(context.getJobDetail().getKey()), context.getJobRunTime(), null != jobException);
+		}
+	}
+
+	/**
+	 * removes the cached metrics of deleted jobs
+	 */
+	private class JobMetricsEvictionListener extends SchedulerListenerSupport {
+
+		@Override
+		public void jobDeleted(JobKey jobKey) {
+			evict(jobKey);
+		}
+
+		@Override
+		public void schedulingDataCleared() {
+			jobMetrics.keySet().forEach(AbstractJobMetricsListener.this::evict);
+		}
+	}
+}
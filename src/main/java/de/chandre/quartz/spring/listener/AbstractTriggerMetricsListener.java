@@ -0,0 +1,148 @@
+package de.chandre.quartz.spring.listener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.quartz.JobKey;
+import org.quartz.SchedulerListener;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerKey;
+import org.quartz.listeners.SchedulerListenerSupport;
+import org.quartz.listeners.TriggerListenerSupport;
+import org.springframework.util.StringUtils;
+
+import de.chandre.quartz.spring.QuartzSchedulerProperties.Metrics;
+
+/**
+ * Base for metrics listeners holding the metrics (names, meters, ...) of each trigger.<br>
+ * The metrics are created once per trigger and cached until the trigger won't fire anymore
+ * or it is unscheduled (see {@link #getSchedulerListener()}).
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ * @param <T> the type of the cached metrics
+ */
+public abstract class AbstractTriggerMetricsListener<T extends AbstractTriggerMetricsListener.TriggerMetrics> extends TriggerListenerSupport {
+
+	private final Metrics metricSettings;
+	private final String name;
+
+	private final Map<TriggerKey, T> triggerMetrics = new ConcurrentHashMap<>();
+
+	private final SchedulerListener schedulerListener = new TriggerMetricsEvictionListener();
+
+	protected AbstractTriggerMetricsListener(Metrics metrics, String name) {
+		this.metricSettings = metrics;
+		this.name = StringUtils.isEmpty(name) ? getClass().getSimpleName() : name;
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	public Metrics getMetricSettings() {
+		return metricSettings;
+	}
+
+	/**
+	 * listener removing the cached metrics of unscheduled triggers. Has to be registered at the scheduler.
+	 * @return
+	 */
+	public SchedulerListener getSchedulerListener() {
+		return schedulerListener;
+	}
+
+	/**
+	 * the number of triggers with cached metrics
+	 * @return
+	 */
+	public int getCachedTriggerCount() {
+		return this.triggerMetrics.size();
+	}
+
+	/**
+	 * creates the metrics of the trigger
+	 * @param trigger
+	 * @return
+	 */
+	protected abstract T createTriggerMetrics(Trigger trigger);
+
+	/**
+	 * called with the metrics removed from the cache, e.g. to unregister meters
+	 * @param metrics
+	 */
+	protected void metricsEvicted(T metrics) {
+	}
+
+	/**
+	 * returns the cached metrics of the trigger, creates them if the trigger or its job key is unknown
+	 * @param trigger
+	 * @return
+	 */
+	protected T getTriggerMetrics(Trigger trigger) {
+		T metrics = this.triggerMetrics.get(trigger.getKey());
+		if (null == metrics || !metrics.getJobKey().equals(trigger.getJobKey())) {
+			metrics = createTriggerMetrics(trigger);
+			T previous = this.triggerMetrics.put(trigger.getKey(), metrics);
+			if (null != previous && previous != metrics) {
+				metricsEvicted(previous);
+			}
+		}
+		return metrics;
+	}
+
+	/**
+	 * removes the cached metrics if the trigger won't fire again
+	 * @param trigger
+	 * @param triggerInstructionCode
+	 */
+	protected void evictIfCompleted(Trigger trigger, CompletedExecutionInstruction triggerInstructionCode) {
+		if (null == trigger.getNextFireTime() || CompletedExecutionInstruction.DELETE_TRIGGER == triggerInstructionCode
+				|| CompletedExecutionInstruction.SET_TRIGGER_COMPLETE == triggerInstructionCode) {
+			evict(trigger.getKey());
+		}
+	}
+
+	private void evict(TriggerKey triggerKey) {
+		T metrics = this.triggerMetrics.remove(triggerKey);
+		if (null != metrics) {
+			metricsEvicted(metrics);
+		}
+	}
+
+	/**
+	 * the metrics of one trigger
+	 */
+	public interface TriggerMetrics {
+
+		/**
+		 * the job key the metrics have been created for
+		 * @return
+		 */
+		JobKey getJobKey();
+	}
+
+	/**
+	 * removes the cached metrics of unscheduled triggers
+	 */
+	private class TriggerMetricsEvictionListener extends SchedulerListenerSupport {
+
+		@Override
+		public void jobUnscheduled(TriggerKey triggerKey) {
+			evict(triggerKey);
+		}
+
+		@Override
+		public void triggerFinalized(Trigger trigger) {
+			evict(trigger.getKey());
+		}
+
+		@Override
+		public void schedulingDataCleared() {
+			triggerMetrics.keySet().forEach(AbstractTriggerMetricsListener.this::evict);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package de.chandre.quartz.spring.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Counters incremented lock-free by the Quartz worker threads and published periodically as deltas by a background thread.<br>
+ * Each counter is a {@link LongAdder}, so concurrent increments of the same metric don't contend.
+ * The published value is tracked per counter, so increments concurrent to a flush are published with the next one.
+ * Counters are kept until they are removed with {@link #remove(String)}, e.g. when their trigger is unscheduled.
+ * A removed counter is published by the next two flushes, so increments racing with the removal are not lost.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+class BufferedCounters {
+
+	private static final Log LOG = LogFactory.getLog(BufferedCounters.class);
+
+	private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+	private final Queue<String> removals = new ConcurrentLinkedQueue<>();
+
+	// removed by the last flush, only accessed by the flushing thread
+	private final List<Counter> removed = new ArrayList<>();
+
+	private final long flushInterval;
+	private final String threadName;
+	private final ObjLongConsumer<String> publisher;
+
+	private ScheduledExecutorService executorService;
+
+	/**
+	 *
+	 * @param flushInterval interval in milliseconds
+	 * @param threadName name of the flushing thread
+	 * @param publisher called with metric name and delta for each changed counter
+	 */
+	BufferedCounters(long flushInterval, String threadName, ObjLongConsumer<String> publisher) {
+		this.flushInterval = flushInterval;
+		this.threadName = threadName;
+		this.publisher = publisher;
+	}
+
+	void increment(String name) {
+		Counter counter = counters.get(name);
+		if (null == counter) {
+			counter = counters.computeIfAbsent(name, Counter::new);
+		}
+		counter.adder.increment();
+	}
+
+	/**
+	 * removes the counter with the next flush
+	 * @param name
+	 */
+	void remove(String name) {
+		removals.add(name);
+	}
+
+	synchronized void start() {
+		if (null != executorService) {
+			return;
+		}
+		executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, threadName);
+			thread.setDaemon(true);
+			return thread;
+		});
+		executorService.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * stops the flushing thread and publishes the remaining deltas
+	 */
+	synchronized void stop() {
+		if (null != executorService) {
+			executorService.shutdown();
+			try {
+				executorService.awaitTermination(flushInterval, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			executorService = null;
+		}
+		flush();
+	}
+
+	/**
+	 * publishes the increments since the last flush
+	 */
+	synchronized void flush() {
+		// a thread may have got a counter right before its removal
+		for (Counter counter : removed) {
+			publish(counter);
+		}
+		removed.clear();
+		String name;
+		while (null != (name = removals.poll())) {
+			Counter counter = counters.remove(name);
+			if (null != counter) {
+				publish(counter);
+				removed.add(counter);
+			}
+		}
+		for (Counter counter : counters.values()) {
+			publish(counter);
+		}
+	}
+
+	private void publish(Counter counter) {
+		long sum = counter.adder.sum();
+		long delta = sum - counter.published;
+		if (delta > 0L) {
+			counter.published = sum;
+			publish(counter.name, delta);
+		}
+	}
+
+	private void publish(String name, long delta) {
+		try {
+			publisher.accept(name, delta);
+		} catch (RuntimeException e) {
+			LOG.warn("publishing metric " + name + " failed: " + e.getMessage());
+			LOG.debug(e.getMessage(), e);
+		}
+	}
+
+	int size() {
+		return counters.size();
+	}
+
+	private static class Counter {
+		private final String name;
+		private final LongAdder adder = new LongAdder();
+		// only accessed by the flushing thread
+		private long published;
+
+		Counter(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package de.chandre.quartz.spring.listener;
+
+import javax.annotation.PostConstruct;
+
+import org.quartz.JobKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+
+import de.chandre.quartz.spring.QuartzSchedulerProperties.Metrics;
+
+/**
+ * Quartz job metrics listener for Spring Boot actuator, companion of {@link TriggerMetricsListener}.<br>
+ * requires a CounterService and GaugeService to be configured.
+ * <ul>
+ * <li>gauges <code>quartz.job.[group].[name].lag</code> and <code>quartz.job.[group].[name].duration</code>,
+ * if {@link Metrics#isEnableJobGauges()}</li>
+ * <li>counters <code>quartz.job.[group].[name].failed</code> and <code>quartz.job.[group].[name].vetoed</code>,
+ * if {@link Metrics#isEnableJobCounter()}</li>
+ * </ul>
+ *
+ * @see MicrometerJobMetricsListener
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class JobMetricsListener extends AbstractJobMetricsListener<JobMetricsListener.MetricNames> {
+
+	public static final String METRIC_SUFFIX_LAG = TriggerMetricsListener.SEPARATOR + "lag";
+	public static final String METRIC_SUFFIX_DURATION = TriggerMetricsListener.SEPARATOR + "duration";
+	public static final String METRIC_SUFFIX_FAILED = TriggerMetricsListener.SEPARATOR + "failed";
+	public static final String METRIC_SUFFIX_VETOED = TriggerMetricsListener.SEPARATOR + "vetoed";
+
+	@Autowired(required = false)
+	private CounterService counterService;
+
+	@Autowired(required = false)
+	private GaugeService gaugeService;
+
+	public JobMetricsListener(Metrics metrics, String name) {
+		super(metrics, name);
+	}
+
+	public boolean isActive() {
+		return getMetricSettings().isEnabled() && (this.counterService != null || this.gaugeService != null);
+	}
+
+	@PostConstruct
+	public void init() {
+		getLog().info(this.getClass().getName() + " is " + (isActive() ? "active" : "deactivated"));
+	}
+
+	@Override
+	protected MetricNames createJobMetrics(JobKey jobKey) {
+		return new MetricNames(jobKey);
+	}
+
+	@Override
+	protected void recordLag(MetricNames names, long lagMillis) {
+		if (null != this.gaugeService && getMetricSettings().isEnableJobGauges()) {
+			this.gaugeService.submit(names.lag, (double) lagMillis);
+		}
+	}
+
+	@Override
+	protected void recordExecution(MetricNames names, long durationMillis, boolean failed) {
+		if (null != this.gaugeService && getMetricSettings().isEnableJobGauges()) {
+			this.gaugeService.submit(names.duration, (double) durationMillis);
+		}
+		if (failed && null != this.counterService && getMetricSettings().isEnableJobCounter()) {
+			this.counterService.increment(names.failed);
+		}
+	}
+
+	@Override
+	protected void recordVeto(MetricNames names) {
+		if (null != this.counterService && getMetricSettings().isEnableJobCounter()) {
+			this.counterService.increment(names.vetoed);
+		}
+	}
+
+	/**
+	 * the metric names of one job
+	 */
+	protected static class MetricNames {
+
+		private final String lag;
+		private final String duration;
+		private final String failed;
+		private final String vetoed;
+
+		MetricNames(JobKey jobKey) {
+			String prefix = TriggerMetricsListener.METRIC_PREFIX + TriggerMetricsListener.METRIC_INFIX_TYPE_JOB
+					+ jobKey.getGroup() + TriggerMetricsListener.SEPARATOR + jobKey.getName();
+			this.lag = prefix + METRIC_SUFFIX_LAG;
+			this.duration = prefix + METRIC_SUFFIX_DURATION;
+			this.failed = prefix + METRIC_SUFFIX_FAILED;
+			this.vetoed = prefix + METRIC_SUFFIX_VETOED;
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package de.chandre.quartz.spring.listener;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.quartz.JobKey;
+
+import de.chandre.quartz.spring.QuartzSchedulerProperties.Metrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Quartz job metrics listener for Micrometer, companion of {@link MicrometerTriggerMetricsListener}.<br>
+ * The meters are tagged with job group and job name:
+ * <ul>
+ * <li>{@value #METRIC_JOB_LAG}, {@value #METRIC_JOB_DURATION} (tagged with {@value #TAG_RESULT}):
+ * timers, if {@link Metrics#isEnableJobGauges()}</li>
+ * <li>{@value #METRIC_JOB_VETOED}: counter, if {@link Metrics#isEnableJobCounter()}</li>
+ * </ul>
+ * The timers publish a percentile histogram if {@link Metrics#isEnablePercentileHistogram()}.
+ * The meters are removed from the registry when the job is deleted.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class MicrometerJobMetricsListener extends AbstractJobMetricsListener<MicrometerJobMetricsListener.JobMeters> {
+
+	public static final String METRIC_JOB_LAG = "quartz.job.lag";
+	public static final String METRIC_JOB_DURATION = "quartz.job.duration";
+	public static final String METRIC_JOB_VETOED = "quartz.job.vetoed";
+
+	public static final String TAG_RESULT = "result";
+	public static final String RESULT_SUCCESS = "success";
+	public static final String RESULT_FAILURE = "failure";
+
+	private final MeterRegistry meterRegistry;
+
+	public MicrometerJobMetricsListener(MeterRegistry meterRegistry, Metrics metrics, String name) {
+		super(metrics, name);
+		this.meterRegistry = meterRegistry;
+	}
+
+	public boolean isActive() {
+		return getMetricSettings().isEnabled() && null != this.meterRegistry;
+	}
+
+	@PostConstruct
+	public void init() {
+		getLog().info(this.getClass().getName() + " is " + (isActive() ? "active" : "deactivated"));
+	}
+
+	@Override
+	protected JobMeters createJobMetrics(JobKey jobKey) {
+		return new JobMeters(Tags.of(MicrometerTriggerMetricsListener.TAG_JOB_GROUP, jobKey.getGroup(),
+				MicrometerTriggerMetricsListener.TAG_JOB_NAME, jobKey.getName()));
+	}
+
+	@Override
+	protected void metricsEvicted(JobMeters metrics) {
+		metrics.remove();
+	}
+
+	@Override
+	protected void recordLag(JobMeters meters, long lagMillis) {
+		if (getMetricSettings().isEnableJobGauges()) {
+			meters.getLag().record(lagMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	protected void recordExecution(JobMeters meters, long durationMillis, boolean failed) {
+		if (getMetricSettings().isEnableJobGauges()) {
+			meters.getDuration(failed).record(durationMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	protected void recordVeto(JobMeters meters) {
+		if (getMetricSettings().isEnableJobCounter()) {
+			meters.getVetoed().increment();
+		}
+	}
+
+	private Timer registerTimer(String name, String description, Tags tags) {
+		Metrics metricSettings = getMetricSettings();
+		Timer.Builder builder = Timer.builder(name).tags(tags).description(description)
+				.publishPercentileHistogram(metricSettings.isEnablePercentileHistogram());
+		if (null != metricSettings.getPercentiles() && metricSettings.getPercentiles().length > 0) {
+			builder.publishPercentiles(metricSettings.getPercentiles());
+		}
+		return builder.register(meterRegistry);
+	}
+
+	/**
+	 * the meters of one job, registered on first use
+	 */
+	protected class JobMeters {
+
+		private final Tags tags;
+
+		private volatile Timer lag;
+		private volatile Timer success;
+		private volatile Timer failure;
+		private volatile Counter vetoed;
+
+		JobMeters(Tags tags) {
+			this.tags = tags;
+		}
+
+		Timer getLag() {
+			Timer timer = lag;
+			if (null == timer) {
+				timer = registerTimer(METRIC_JOB_LAG, "time between scheduled and actual fire time", tags);
+				lag = timer;
+			}
+			return timer;
+		}
+
+		Timer getDuration(boolean failed) {
+			Timer timer = failed ? failure : success;
+			if (null == timer) {
+				timer = registerTimer(METRIC_JOB_DURATION, "run time of the jobs",
+						tags.and(TAG_RESULT, failed ? RESULT_FAILURE : RESULT_SUCCESS));
+				if (failed) {
+					failure = timer;
+				} else {
+					success = timer;
+				}
+			}
+			return timer;
+		}
+
+		Counter getVetoed() {
+			Counter counter = vetoed;
+			if (null == counter) {
+				counter = meterRegistry.counter(METRIC_JOB_VETOED, tags);
+				vetoed = counter;
+			}
+			return counter;
+		}
+
+		/**
+		 * removes the registered meters from the registry
+		 */
+		void remove() {
+			remove(lag);
+			remove(success);
+			remove(failure);
+			remove(vetoed);
+		}
+
+		private void remove(Meter meter) {
+			if (null != meter) {
+				meterRegistry.remove(meter);
+			}
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package de.chandre.quartz.spring.listener;
+
+import javax.annotation.PostConstruct;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+
+import de.chandre.quartz.spring.QuartzSchedulerProperties.Metrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Quartz metrics listener for Micrometer.<br>
+ * Instead of dotted names the meters are tagged with job group, job name, trigger group and trigger name
+ * (and the execution instruction for completed triggers):
+ * <ul>
+ * <li>{@value #METRIC_TRIGGER_FIRED}, {@value #METRIC_TRIGGER_COMPLETED}, {@value #METRIC_TRIGGER_MISFIRED}:
+ * counters, if {@link Metrics#isEnableTriggerCounter()}</li>
+ * </ul>
+ * The run times of the jobs are timed by the {@link MicrometerJobMetricsListener}.
+ * Counting per job or job group is done by aggregating the tags.
+ * The meters are registered once per trigger and cached until the trigger won't fire anymore or it is unscheduled,
+ * then they are removed from the registry.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class MicrometerTriggerMetricsListener extends AbstractTriggerMetricsListener<MicrometerTriggerMetricsListener.TriggerMeters> {
+
+	public static final String METRIC_TRIGGER_FIRED = "quartz.trigger.fired";
+	public static final String METRIC_TRIGGER_COMPLETED = "quartz.trigger.completed";
+	public static final String METRIC_TRIGGER_MISFIRED = "quartz.trigger.misfired";
+
+	public static final String TAG_JOB_GROUP = "job.group";
+	public static final String TAG_JOB_NAME = "job.name";
+	public static final String TAG_TRIGGER_GROUP = "trigger.group";
+	public static final String TAG_TRIGGER_NAME = "trigger.name";
+	public static final String TAG_INSTRUCTION = "instruction";
+
+	private final MeterRegistry meterRegistry;
+
+	public MicrometerTriggerMetricsListener(MeterRegistry meterRegistry, Metrics metrics, String name) {
+		super(metrics, name);
+		this.meterRegistry = meterRegistry;
+	}
+
+	public boolean isActive() {
+		return getMetricSettings().isEnabled() && null != this.meterRegistry;
+	}
+
+	@PostConstruct
+	public void init() {
+		getLog().info(this.getClass().getName() + " is " + (isActive() ? "active" : "deactivated"));
+	}
+
+	@Override
+	protected TriggerMeters createTriggerMetrics(Trigger trigger) {
+		Tags tags = Tags.of(TAG_JOB_GROUP, trigger.getJobKey().getGroup(), TAG_JOB_NAME, trigger.getJobKey().getName(),
+				TAG_TRIGGER_GROUP, trigger.getKey().getGroup(), TAG_TRIGGER_NAME, trigger.getKey().getName());
+		return new TriggerMeters(trigger.getJobKey(), tags);
+	}
+
+	@Override
+	protected void metricsEvicted(TriggerMeters metrics) {
+		metrics.remove();
+	}
+
+	@Override
+	public void triggerFired(Trigger trigger, JobExecutionContext context) {
+		if (getMetricSettings().isEnableTriggerCounter()) {
+			getTriggerMetrics(trigger).getFired().increment();
+		}
+	}
+
+	@Override
+	public void triggerMisfired(Trigger trigger) {
+		if (getMetricSettings().isEnableTriggerCounter()) {
+			getTriggerMetrics(trigger).getMisfired().increment();
+		}
+	}
+
+	@Override
+	public void triggerComplete(Trigger trigger, JobExecutionContext context,
+			CompletedExecutionInstruction triggerInstructionCode) {
+		Metrics metricSettings = getMetricSettings();
+		if (metricSettings.isEnableTriggerCounter()) {
+			getTriggerMetrics(trigger).getCompleted(metricSettings.isEnableExecutionInstructionCounter() ? triggerInstructionCode : null)
+					.increment();
+		}
+		evictIfCompleted(trigger, triggerInstructionCode);
+	}
+
+	/**
+	 * the meters of one trigger, registered on first use
+	 */
+	protected class TriggerMeters implements AbstractTriggerMetricsListener.TriggerMetrics {
+
+		private final JobKey jobKey;
+		private final Tags tags;
+
+		private volatile Counter fired;
+		private volatile Counter misfired;
+		private volatile Counter completed;
+		private final Counter[] completedByInstruction = new Counter[CompletedExecutionInstruction.values().length];
+
+		TriggerMeters(JobKey jobKey, Tags tags) {
+			this.jobKey = jobKey;
+			this.tags = tags;
+		}
+
+		@Override
+		public JobKey getJobKey() {
+			return jobKey;
+		}
+
+		Counter getFired() {
+			Counter counter = fired;
+			if (null == counter) {
+				counter = meterRegistry.counter(METRIC_TRIGGER_FIRED, tags);
+				fired = counter;
+			}
+			return counter;
+		}
+
+		Counter getMisfired() {
+			Counter counter = misfired;
+			if (null == counter) {
+				counter = meterRegistry.counter(METRIC_TRIGGER_MISFIRED, tags);
+				misfired = counter;
+			}
+			return counter;
+		}
+
+		Counter getCompleted(CompletedExecutionInstruction instruction) {
+			if (null == instruction) {
+				Counter counter = completed;
+				if (null == counter) {
+					counter = meterRegistry.counter(METRIC_TRIGGER_COMPLETED, tags);
+					completed = counter;
+				}
+				return counter;
+			}
+			// the registry returns the same counter if two threads are racing here
+			Counter counter = completedByInstruction[instruction.ordinal()];
+			if (null == counter) {
+				counter = meterRegistry.counter(METRIC_TRIGGER_COMPLETED, tags.and(TAG_INSTRUCTION, instruction.name()));
+				completedByInstruction[instruction.ordinal()] = counter;
+			}
+			return counter;
+		}
+
+		/**
+		 * removes the registered meters from the registry
+		 */
+		void remove() {
+			remove(fired);
+			remove(misfired);
+			remove(completed);
+			for (Counter counter : completedByInstruction) {
+				remove(counter);
+			}
+		}
+
+		private void remove(Meter meter) {
+			if (null != meter) {
+				meterRegistry.remove(meter);
+			}
+		}
+	}
+}
@@ -1,27 +1,43 @@
 package de.chandre.quartz.spring.listener;
 
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
 import org.quartz.Trigger;
 import org.quartz.Trigger.CompletedExecutionInstruction;
-import org.quartz.listeners.TriggerListenerSupport;
+import org.quartz.TriggerKey;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.boot.actuate.metrics.GaugeService;
-import org.springframework.util.StringUtils;
+import org.springframework.boot.actuate.metrics.buffer.BufferCounterService;
+import org.springframework.boot.actuate.metrics.buffer.CounterBuffers;
+import org.springframework.boot.actuate.metrics.writer.CounterWriter;
+import org.springframework.boot.actuate.metrics.writer.Delta;
 
 import de.chandre.quartz.spring.QuartzSchedulerProperties.Metrics;
 
 /**
  * Quartz metrics listener for Spring Boot actuator.<br>
- * requires a CounterService and GaugeService to be configured.
+ * requires a CounterService and GaugeService to be configured.<br>
+ * The metric names are created once per trigger and cached until the trigger won't fire anymore
+ * or it is unscheduled (see {@link #getSchedulerListener()}).<br>
+ * With {@link Metrics#getCounterFlushInterval()} the counters are buffered and published by a background thread,
+ * so the worker threads only increment a {@link java.util.concurrent.atomic.LongAdder} per metric.
+ * The deltas are published with one call per metric if the CounterService is a {@link CounterWriter}
+ * or spring boot's {@link BufferCounterService}, otherwise they are incremented one by one.
+ * 
+ * @see MicrometerTriggerMetricsListener
  * 
  * @author André
  * @since 1.0.5
  *
  */
-public class TriggerMetricsListener extends TriggerListenerSupport {
+public class TriggerMetricsListener extends AbstractTriggerMetricsListener<TriggerMetricsListener.MetricNames> {
 
 	public static final String SEPARATOR = ".";
 
@@ -34,32 +50,96 @@ public class TriggerMetricsListener extends TriggerListenerSupport {
 	public static final String METRIC_SUFFIX_COMPLETE = SEPARATOR + "completed";
 	public static final String METRIC_SUFFIX_MISFIRE = SEPARATOR + "misfired";
 
-	private Metrics metricSettings;
-	private String name;
-
 	@Autowired(required = false)
 	private CounterService counterService;
 
 	@Autowired(required = false)
 	private GaugeService gaugeService;
 
+	@Autowired(required = false)
+	private CounterBuffers counterBuffers;
+
+	private BufferedCounters bufferedCounters;
+
 	public TriggerMetricsListener(Metrics metrics, String name) {
-		this.metricSettings = metrics;
-		this.name = StringUtils.isEmpty(name) ? getClass().getSimpleName() : name;
+		super(metrics, name);
 	}
 
 	public boolean isActive() {
-		return this.metricSettings.isEnabled() && (this.counterService != null || this.gaugeService != null);
+		return getMetricSettings().isEnabled() && (this.counterService != null || this.gaugeService != null);
 	}
 
 	@PostConstruct
 	public void init() {
 		getLog().info(this.getClass().getName() + " is " + (isActive() ? "active" : "deactivated"));
+		if (isActive() && null != this.counterService && getMetricSettings().getCounterFlushInterval() > 0L) {
+			getLog().info("counters are flushed every " + getMetricSettings().getCounterFlushInterval() + " ms");
+			this.bufferedCounters = new BufferedCounters(getMetricSettings().getCounterFlushInterval(),
+					getName() + "-flusher", getDeltaPublisher());
+			this.bufferedCounters.start();
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		if (null != this.bufferedCounters) {
+			this.bufferedCounters.stop();
+		}
+	}
+
+	/*
+	 * CounterService only knows single increments, so the delta is written to the underlying counters if they are known
+	 */
+	private ObjLongConsumer<String> getDeltaPublisher() {
+		if (this.counterService instanceof CounterWriter) {
+			CounterWriter counterWriter = (CounterWriter) this.counterService;
+			return (metricName, delta) -> counterWriter.increment(new Delta<>(metricName, delta));
+		}
+		if (this.counterService instanceof BufferCounterService && null != this.counterBuffers) {
+			CounterBuffers buffers = this.counterBuffers;
+			return (metricName, delta) -> buffers.increment(bufferedCounterName(metricName), delta);
+		}
+		return (metricName, delta) -> {
+			for (long i = 0; i < delta; i++) {
+				this.counterService.increment(metricName);
+			}
+		};
+	}
+
+	/*
+	 * the name used by BufferCounterService
+	 */
+	private static String bufferedCounterName(String metricName) {
+		if (metricName.startsWith("counter.") || metricName.startsWith("meter.")) {
+			return metricName;
+		}
+		return "counter." + metricName;
+	}
+
+	/**
+	 * increments the counter directly or buffered
+	 * @param metricName
+	 */
+	protected void count(String metricName) {
+		BufferedCounters counters = this.bufferedCounters;
+		if (null != counters) {
+			counters.increment(metricName);
+		} else {
+			this.counterService.increment(metricName);
+		}
 	}
 
 	@Override
-	public String getName() {
-		return this.name;
+	protected MetricNames createTriggerMetrics(Trigger trigger) {
+		return new MetricNames(trigger.getKey(), trigger.getJobKey());
+	}
+
+	@Override
+	protected void metricsEvicted(MetricNames metrics) {
+		BufferedCounters counters = this.bufferedCounters;
+		if (null != counters) {
+			metrics.forEachName(counters::remove);
+		}
 	}
 
 	protected void mesure(String suffix, Trigger trigger, JobExecutionContext context,
@@ -69,45 +149,45 @@ public class TriggerMetricsListener extends TriggerListenerSupport {
 		}
 		getLog().trace("exposing metrics");
 
-		String jobKey = METRIC_PREFIX + METRIC_INFIX_TYPE_JOB + trigger.getJobKey().getGroup() + SEPARATOR
-				+ trigger.getJobKey().getName() + suffix;
-		String triggerKey = METRIC_PREFIX + METRIC_INFIX_TYPE_TRIGGER + trigger.getKey().getGroup() + SEPARATOR
-				+ trigger.getKey().getName() + suffix;
+		Metrics metricSettings = getMetricSettings();
+		MetricNames names = getTriggerMetrics(trigger);
+		String jobKey = names.getJobName(suffix);
+		String triggerKey = names.getTriggerName(suffix);
 
 		if (null != this.counterService) {
-			if (this.metricSettings.isEnableJobGroupCounter()) {
+			if (metricSettings.isEnableJobGroupCounter()) {
 				// count job group
-				this.counterService.increment(METRIC_PREFIX + METRIC_INFIX_TYPE_JOB + trigger.getJobKey().getGroup() + suffix);
+				count(names.getJobGroupName(suffix));
 			}
-			if (this.metricSettings.isEnableJobCounter()) {
+			if (metricSettings.isEnableJobCounter()) {
 				// count job group and job name
-				this.counterService.increment(jobKey);
+				count(jobKey);
 			}
-			if (this.metricSettings.isEnableTriggerCounter()) {
+			if (metricSettings.isEnableTriggerCounter()) {
 				// count trigger group and trigger name
-				this.counterService.increment(triggerKey);
+				count(triggerKey);
 			}
 			
 			// count finish code
-			if (this.metricSettings.isEnableExecutionInstructionCounter() && null != triggerInstructionCode) {
-				if (this.metricSettings.isEnableTriggerCounter()) {
-					this.counterService.increment(triggerKey + SEPARATOR + triggerInstructionCode.name());
+			if (metricSettings.isEnableExecutionInstructionCounter() && null != triggerInstructionCode) {
+				if (metricSettings.isEnableTriggerCounter()) {
+					count(names.getTriggerInstructionName(suffix, triggerInstructionCode));
 				}
-				if (this.metricSettings.isEnableJobCounter()) {
+				if (metricSettings.isEnableJobCounter()) {
 					// if a job has more than one trigger .
-					this.counterService.increment(jobKey + SEPARATOR + triggerInstructionCode.name());
+					count(names.getJobInstructionName(suffix, triggerInstructionCode));
 				}
 			}
 		}
 
 		if (null != context && null != this.gaugeService) {
 			if (context.getJobRunTime() != -1) {
-				if (this.metricSettings.isEnableTriggerGauges()) {
-					gaugeService.submit(triggerKey, Long.valueOf(context.getJobRunTime()).doubleValue());
+				if (metricSettings.isEnableTriggerGauges()) {
+					gaugeService.submit(triggerKey, (double) context.getJobRunTime());
 				}
-				if (this.metricSettings.isEnableJobGauges()) {
+				if (metricSettings.isEnableJobGauges()) {
 					// if a job has more than one trigger .
-					gaugeService.submit(jobKey, Long.valueOf(context.getJobRunTime()).doubleValue());
+					gaugeService.submit(jobKey, (double) context.getJobRunTime());
 				}
 			}
 		}
@@ -128,6 +208,110 @@ public class TriggerMetricsListener extends TriggerListenerSupport {
 	public void triggerComplete(Trigger trigger, JobExecutionContext context,
 			CompletedExecutionInstruction triggerInstructionCode) {
 		mesure(METRIC_SUFFIX_COMPLETE, trigger, context, triggerInstructionCode);
+		evictIfCompleted(trigger, triggerInstructionCode);
 	}
 
+	/**
+	 * the metric names of one trigger, created once for the suffixes of this listener
+	 */
+	protected static class MetricNames implements AbstractTriggerMetricsListener.TriggerMetrics {
+
+		private static final String[] SUFFIXES = {METRIC_SUFFIX_START, METRIC_SUFFIX_COMPLETE, METRIC_SUFFIX_MISFIRE};
+
+		private final TriggerKey triggerKey;
+		private final JobKey jobKey;
+
+		private final String[] jobGroupNames = new String[SUFFIXES.length];
+		private final String[] jobNames = new String[SUFFIXES.length];
+		private final String[] triggerNames = new String[SUFFIXES.length];
+		private final String[][] jobInstructionNames = new String[SUFFIXES.length][];
+		private final String[][] triggerInstructionNames = new String[SUFFIXES.length][];
+
+		MetricNames(TriggerKey triggerKey, JobKey jobKey) {
+			this.triggerKey = triggerKey;
+			this.jobKey = jobKey;
+			CompletedExecutionInstruction[] instructions = CompletedExecutionInstruction.values();
+			for (int i = 0; i < SUFFIXES.length; i++) {
+				jobGroupNames[i] = jobGroupName(SUFFIXES[i]);
+				jobNames[i] = jobName(SUFFIXES[i]);
+				triggerNames[i] = triggerName(SUFFIXES[i]);
+				jobInstructionNames[i] = new String[instructions.length];
+				triggerInstructionNames[i] = new String[instructions.length];
+				for (CompletedExecutionInstruction instruction : instructions) {
+					jobInstructionNames[i][instruction.ordinal()] = jobNames[i] + SEPARATOR + instruction.name();
+					triggerInstructionNames[i][instruction.ordinal()] = triggerNames[i] + SEPARATOR + instruction.name();
+				}
+			}
+		}
+
+		/*
+		 * index of the suffix in the name arrays, -1 for other suffixes, which are not cached
+		 */
+		private static int indexOf(String suffix) {
+			for (int i = 0; i < SUFFIXES.length; i++) {
+				if (SUFFIXES[i].equals(suffix)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private String jobGroupName(String suffix) {
+			return METRIC_PREFIX + METRIC_INFIX_TYPE_JOB + jobKey.getGroup() + suffix;
+		}
+
+		private String jobName(String suffix) {
+			return METRIC_PREFIX + METRIC_INFIX_TYPE_JOB + jobKey.getGroup() + SEPARATOR + jobKey.getName() + suffix;
+		}
+
+		private String triggerName(String suffix) {
+			return METRIC_PREFIX + METRIC_INFIX_TYPE_TRIGGER + triggerKey.getGroup() + SEPARATOR + triggerKey.getName() + suffix;
+		}
+
+		@Override
+		public JobKey getJobKey() {
+			return jobKey;
+		}
+
+		/**
+		 * calls the action with each cached name
+		 * @param action
+		 */
+		void forEachName(Consumer<String> action) {
+			for (int i = 0; i < SUFFIXES.length; i++) {
+				action.accept(jobGroupNames[i]);
+				action.accept(jobNames[i]);
+				action.accept(triggerNames[i]);
+				for (int j = 0; j < jobInstructionNames[i].length; j++) {
+					action.accept(jobInstructionNames[i][j]);
+					action.accept(triggerInstructionNames[i][j]);
+				}
+			}
+		}
+
+		public String getJobGroupName(String suffix) {
+			int index = indexOf(suffix);
+			return index < 0 ? jobGroupName(suffix) : jobGroupNames[index];
+		}
+
+		public String getJobName(String suffix) {
+			int index = indexOf(suffix);
+			return index < 0 ? jobName(suffix) : jobNames[index];
+		}
+
+		public String getTriggerName(String suffix) {
+			int index = indexOf(suffix);
+			return index < 0 ? triggerName(suffix) : triggerNames[index];
+		}
+
+		public String getJobInstructionName(String suffix, CompletedExecutionInstruction instruction) {
+			int index = indexOf(suffix);
+			return index < 0 ? jobName(suffix) + SEPARATOR + instruction.name() : jobInstructionNames[index][instruction.ordinal()];
+		}
+
+		public String getTriggerInstructionName(String suffix, CompletedExecutionInstruction instruction) {
+			int index = indexOf(suffix);
+			return index < 0 ? triggerName(suffix) + SEPARATOR + instruction.name() : triggerInstructionNames[index][instruction.ordinal()];
+		}
+	}
 }
@@ -0,0 +1,103 @@
+package de.chandre.quartz.spring.metrics;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import de.chandre.quartz.spring.queue.QueuedInstance;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the latest {@link QuartzMetricsSnapshot} as Micrometer gauges:
+ * <ul>
+ * <li>{@value #METRIC_THREADS_SIZE}, {@value #METRIC_THREADS_BUSY}, {@value #METRIC_THREADS_AVAILABLE}</li>
+ * <li>{@value #METRIC_QUEUE_SIZE}, {@value #METRIC_QUEUE_OLDEST_AGE}, {@value #METRIC_QUEUE_KEYS},
+ * tagged with {@value #TAG_SERVICE} and {@value #TAG_GROUP}. The gauges of a group are registered with the first snapshot containing it.</li>
+ * </ul>
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class MicrometerQuartzMetrics implements MeterBinder {
+
+	public static final String METRIC_THREADS_SIZE = "quartz.threads.size";
+	public static final String METRIC_THREADS_BUSY = "quartz.threads.busy";
+	public static final String METRIC_THREADS_AVAILABLE = "quartz.threads.available";
+
+	public static final String METRIC_QUEUE_SIZE = "quartz.queue.size";
+	public static final String METRIC_QUEUE_OLDEST_AGE = "quartz.queue.oldest.age";
+	public static final String METRIC_QUEUE_KEYS = "quartz.queue.keys";
+
+	public static final String TAG_SERVICE = "service";
+	public static final String TAG_GROUP = "group";
+
+	private final QuartzMetricsSampler sampler;
+
+	/*
+	 * latest state by service and group, read by the gauges
+	 */
+	private final Map<String, QuartzMetricsSnapshot.QueueGroup> queueGroups = new ConcurrentHashMap<>();
+
+	private volatile MeterRegistry registry;
+
+	public MicrometerQuartzMetrics(QuartzMetricsSampler sampler) {
+		this.sampler = sampler;
+	}
+
+	@Override
+	public synchronized void bindTo(MeterRegistry registry) {
+		if (null != this.registry) {
+			// already bound by the auto-configuration
+			return;
+		}
+		this.registry = registry;
+		Gauge.builder(METRIC_THREADS_SIZE, sampler, s -> s.getSnapshot().getThreadPoolSize())
+				.description("worker threads of the scheduler").register(registry);
+		Gauge.builder(METRIC_THREADS_BUSY, sampler, s -> s.getSnapshot().getBusyThreads())
+				.description("worker threads executing a job").register(registry);
+		Gauge.builder(METRIC_THREADS_AVAILABLE, sampler, s -> s.getSnapshot().getAvailableThreads())
+				.description("worker threads waiting for a job").register(registry);
+		update(sampler.getSnapshot());
+		sampler.addSnapshotListener(this::update);
+	}
+
+	private static String key(String service, String group) {
+		return service + QueuedInstance.KEY_SEPARATOR + group;
+	}
+
+	private void update(QuartzMetricsSnapshot snapshot) {
+		Set<String> sampled = new HashSet<>();
+		for (QuartzMetricsSnapshot.QueueGroup queueGroup : snapshot.getQueueGroups()) {
+			String key = key(queueGroup.getService(), queueGroup.getGroup());
+			sampled.add(key);
+			if (null == queueGroups.put(key, queueGroup)) {
+				register(key, queueGroup.getService(), queueGroup.getGroup());
+			}
+		}
+		// drained groups are removed from the queue services, their gauges report an empty queue
+		for (Map.Entry<String, QuartzMetricsSnapshot.QueueGroup> entry : queueGroups.entrySet()) {
+			if (!sampled.contains(entry.getKey())) {
+				QuartzMetricsSnapshot.QueueGroup queueGroup = entry.getValue();
+				entry.setValue(new QuartzMetricsSnapshot.QueueGroup(queueGroup.getService(), queueGroup.getGroup(), 0, 0L, 0));
+			}
+		}
+	}
+
+	private void register(String key, String service, String group) {
+		Gauge.builder(METRIC_QUEUE_SIZE, queueGroups, groups -> groups.get(key).getSize())
+				.tag(TAG_SERVICE, service).tag(TAG_GROUP, group)
+				.description("instances waiting for execution").register(registry);
+		TimeGauge.builder(METRIC_QUEUE_OLDEST_AGE, queueGroups, TimeUnit.MILLISECONDS, groups -> groups.get(key).getOldestQueuedAge())
+				.tag(TAG_SERVICE, service).tag(TAG_GROUP, group)
+				.description("waiting time of the oldest queued instance").register(registry);
+		Gauge.builder(METRIC_QUEUE_KEYS, queueGroups, groups -> groups.get(key).getQueuedKeys())
+				.tag(TAG_SERVICE, service).tag(TAG_GROUP, group)
+				.description("different keys waiting for execution").register(registry);
+	}
+}
@@ -0,0 +1,180 @@
+package de.chandre.quartz.spring.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.springframework.context.SmartLifecycle;
+
+import de.chandre.quartz.spring.queue.AbstractQueueService;
+
+/**
+ * Samples the usage of the scheduler's thread pool and the depth of the queue services periodically.<br>
+ * Reading metrics only returns the latest {@link QuartzMetricsSnapshot}, so they can be polled
+ * as often as wanted without touching the scheduler or locking the queues.<br>
+ * Sampling starts with the application context, after all queue services have been created.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class QuartzMetricsSampler implements SmartLifecycle {
+
+	private static final Log LOG = LogFactory.getLog(QuartzMetricsSampler.class);
+
+	public static final String SAMPLER_THREAD_NAME = "QuartzMetricsSampler";
+
+	private final Scheduler scheduler;
+	private final Supplier<Map<String, AbstractQueueService<?>>> queueServiceSupplier;
+	private final long sampleInterval;
+
+	private volatile Map<String, AbstractQueueService<?>> queueServices = Collections.emptyMap();
+
+	private final List<Consumer<QuartzMetricsSnapshot>> snapshotListeners = new CopyOnWriteArrayList<>();
+
+	private volatile QuartzMetricsSnapshot snapshot = QuartzMetricsSnapshot.EMPTY;
+
+	private ScheduledExecutorService executorService;
+
+	/**
+	 *
+	 * @param scheduler the scheduler to sample, may be null
+	 * @param queueServices the queue services to sample by bean name, may be null
+	 * @param sampleInterval interval in milliseconds
+	 */
+	public QuartzMetricsSampler(Scheduler scheduler, Map<String, AbstractQueueService<?>> queueServices, long sampleInterval) {
+		this(scheduler, () -> queueServices, sampleInterval);
+	}
+
+	/**
+	 *
+	 * @param scheduler the scheduler to sample, may be null
+	 * @param queueServiceSupplier supplies the queue services to sample by bean name on {@link #start()}
+	 * @param sampleInterval interval in milliseconds
+	 */
+	public QuartzMetricsSampler(Scheduler scheduler, Supplier<Map<String, AbstractQueueService<?>>> queueServiceSupplier,
+			long sampleInterval) {
+		if (sampleInterval < 1L) {
+			throw new IllegalArgumentException("sampleInterval must be greater than 0");
+		}
+		this.scheduler = scheduler;
+		this.queueServiceSupplier = queueServiceSupplier;
+		this.sampleInterval = sampleInterval;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (null != executorService) {
+			return;
+		}
+		Map<String, AbstractQueueService<?>> services = queueServiceSupplier.get();
+		this.queueServices = null != services ? services : Collections.emptyMap();
+		executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, SAMPLER_THREAD_NAME);
+			thread.setDaemon(true);
+			return thread;
+		});
+		executorService.scheduleWithFixedDelay(() -> {
+			try {
+				sample();
+			} catch (RuntimeException e) {
+				LOG.warn("sampling quartz metrics failed: " + e.getMessage());
+				LOG.debug(e.getMessage(), e);
+			}
+		}, 0L, sampleInterval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (null != executorService) {
+			executorService.shutdownNow();
+			executorService = null;
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public synchronized boolean isRunning() {
+		return null != executorService;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return true;
+	}
+
+	@Override
+	public int getPhase() {
+		// start after the scheduler
+		return Integer.MAX_VALUE;
+	}
+
+	public long getSampleInterval() {
+		return sampleInterval;
+	}
+
+	/**
+	 * the latest sampled state
+	 * @return never null
+	 */
+	public QuartzMetricsSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * the listener is called with each new snapshot by the sampler thread
+	 * @param listener
+	 */
+	public void addSnapshotListener(Consumer<QuartzMetricsSnapshot> listener) {
+		this.snapshotListeners.add(listener);
+	}
+
+	/**
+	 * takes a new snapshot immediately
+	 * @return the new snapshot
+	 */
+	public QuartzMetricsSnapshot sample() {
+		long now = System.currentTimeMillis();
+		int threadPoolSize = 0;
+		int busyThreads = 0;
+		if (null != scheduler) {
+			try {
+				threadPoolSize = scheduler.getMetaData().getThreadPoolSize();
+				busyThreads = scheduler.getCurrentlyExecutingJobs().size();
+			} catch (SchedulerException e) {
+				LOG.debug("unable to sample scheduler: " + e.getMessage(), e);
+			}
+		}
+		List<QuartzMetricsSnapshot.QueueGroup> queueGroups = new ArrayList<>();
+		for (Map.Entry<String, AbstractQueueService<?>> entry : queueServices.entrySet()) {
+			AbstractQueueService<?> queueService = entry.getValue();
+			for (String group : queueService.getGroups()) {
+				long oldestQueuedAt = queueService.getOldestQueuedAt(group);
+				queueGroups.add(new QuartzMetricsSnapshot.QueueGroup(entry.getKey(), group, queueService.getQueueSize(group),
+						oldestQueuedAt < 0L ? 0L : Math.max(0L, now - oldestQueuedAt), queueService.getQueuedKeyCount(group)));
+			}
+		}
+		QuartzMetricsSnapshot newSnapshot = new QuartzMetricsSnapshot(now, threadPoolSize, busyThreads, queueGroups);
+		this.snapshot = newSnapshot;
+		for (Consumer<QuartzMetricsSnapshot> listener : snapshotListeners) {
+			listener.accept(newSnapshot);
+		}
+		return newSnapshot;
+	}
+}
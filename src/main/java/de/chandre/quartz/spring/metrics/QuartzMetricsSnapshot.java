@@ -0,0 +1,125 @@
+package de.chandre.quartz.spring.metrics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable state of the scheduler's thread pool and the queue services at one point in time,
+ * created by {@link QuartzMetricsSampler}.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class QuartzMetricsSnapshot {
+
+	static final QuartzMetricsSnapshot EMPTY = new QuartzMetricsSnapshot(0L, 0, 0, Collections.emptyList());
+
+	private final long timestamp;
+	private final int threadPoolSize;
+	private final int busyThreads;
+	private final List<QueueGroup> queueGroups;
+
+	public QuartzMetricsSnapshot(long timestamp, int threadPoolSize, int busyThreads, List<QueueGroup> queueGroups) {
+		this.timestamp = timestamp;
+		this.threadPoolSize = threadPoolSize;
+		this.busyThreads = busyThreads;
+		this.queueGroups = Collections.unmodifiableList(queueGroups);
+	}
+
+	/**
+	 * time in milliseconds when the snapshot has been taken, 0 if never sampled
+	 * @return
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * the number of worker threads of the scheduler
+	 * @return
+	 */
+	public int getThreadPoolSize() {
+		return threadPoolSize;
+	}
+
+	/**
+	 * the number of worker threads executing a job
+	 * @return
+	 */
+	public int getBusyThreads() {
+		return busyThreads;
+	}
+
+	/**
+	 * the number of worker threads waiting for a job
+	 * @return
+	 */
+	public int getAvailableThreads() {
+		return Math.max(0, threadPoolSize - busyThreads);
+	}
+
+	/**
+	 * the queues of all groups of all queue services
+	 * @return
+	 */
+	public List<QueueGroup> getQueueGroups() {
+		return queueGroups;
+	}
+
+	/**
+	 * state of the queue of one group of a queue service
+	 */
+	public static class QueueGroup {
+
+		private final String service;
+		private final String group;
+		private final int size;
+		private final long oldestQueuedAge;
+		private final int queuedKeys;
+
+		public QueueGroup(String service, String group, int size, long oldestQueuedAge, int queuedKeys) {
+			this.service = service;
+			this.group = group;
+			this.size = size;
+			this.oldestQueuedAge = oldestQueuedAge;
+			this.queuedKeys = queuedKeys;
+		}
+
+		/**
+		 * the bean name of the queue service
+		 * @return
+		 */
+		public String getService() {
+			return service;
+		}
+
+		public String getGroup() {
+			return group;
+		}
+
+		/**
+		 * the number of instances waiting for execution
+		 * @return
+		 */
+		public int getSize() {
+			return size;
+		}
+
+		/**
+		 * milliseconds the oldest instance is waiting for execution, 0 if nothing is queued
+		 * @return
+		 */
+		public long getOldestQueuedAge() {
+			return oldestQueuedAge;
+		}
+
+		/**
+		 * the number of different keys waiting for execution
+		 * @return
+		 */
+		public int getQueuedKeys() {
+			return queuedKeys;
+		}
+	}
+}
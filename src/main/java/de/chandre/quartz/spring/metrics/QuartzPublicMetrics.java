@@ -0,0 +1,56 @@
+package de.chandre.quartz.spring.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+/**
+ * Exposes the latest {@link QuartzMetricsSnapshot} to the Spring Boot actuator metrics endpoint:
+ * <ul>
+ * <li><code>quartz.threads.size</code>, <code>quartz.threads.busy</code>, <code>quartz.threads.available</code></li>
+ * <li><code>quartz.queue.[service].[group].size</code>, <code>quartz.queue.[service].[group].oldest-age</code> (milliseconds),
+ * <code>quartz.queue.[service].[group].keys</code></li>
+ * </ul>
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class QuartzPublicMetrics implements PublicMetrics {
+
+	public static final String METRIC_THREADS_SIZE = "quartz.threads.size";
+	public static final String METRIC_THREADS_BUSY = "quartz.threads.busy";
+	public static final String METRIC_THREADS_AVAILABLE = "quartz.threads.available";
+
+	public static final String METRIC_QUEUE_PREFIX = "quartz.queue.";
+	public static final String METRIC_QUEUE_SUFFIX_SIZE = ".size";
+	public static final String METRIC_QUEUE_SUFFIX_OLDEST_AGE = ".oldest-age";
+	public static final String METRIC_QUEUE_SUFFIX_KEYS = ".keys";
+
+	private final QuartzMetricsSampler sampler;
+
+	public QuartzPublicMetrics(QuartzMetricsSampler sampler) {
+		this.sampler = sampler;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		QuartzMetricsSnapshot snapshot = sampler.getSnapshot();
+		Date timestamp = new Date(snapshot.getTimestamp());
+		List<Metric<?>> metrics = new ArrayList<>(3 + snapshot.getQueueGroups().size() * 3);
+		metrics.add(new Metric<Integer>(METRIC_THREADS_SIZE, snapshot.getThreadPoolSize(), timestamp));
+		metrics.add(new Metric<Integer>(METRIC_THREADS_BUSY, snapshot.getBusyThreads(), timestamp));
+		metrics.add(new Metric<Integer>(METRIC_THREADS_AVAILABLE, snapshot.getAvailableThreads(), timestamp));
+		for (QuartzMetricsSnapshot.QueueGroup queueGroup : snapshot.getQueueGroups()) {
+			String prefix = METRIC_QUEUE_PREFIX + queueGroup.getService() + "." + queueGroup.getGroup();
+			metrics.add(new Metric<Integer>(prefix + METRIC_QUEUE_SUFFIX_SIZE, queueGroup.getSize(), timestamp));
+			metrics.add(new Metric<Long>(prefix + METRIC_QUEUE_SUFFIX_OLDEST_AGE, queueGroup.getOldestQueuedAge(), timestamp));
+			metrics.add(new Metric<Integer>(prefix + METRIC_QUEUE_SUFFIX_KEYS, queueGroup.getQueuedKeys(), timestamp));
+		}
+		return metrics;
+	}
+}
@@ -3,13 +3,17 @@ package de.chandre.quartz.spring.queue;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.apache.commons.logging.Log;
 
+import de.chandre.quartz.spring.QuartzSchedulerProperties;
+
 /**
  * 
  * @author André
@@ -23,12 +27,139 @@ public abstract class AbstractQueueService<T> implements QueueService<T> {
 	
 	private TimeUnit waitForTerminationUnit = TimeUnit.MILLISECONDS;
 	
+	private boolean useVirtualThreads = false;
+	
+	private int capacity = GroupQueue.UNBOUNDED;
+	
+	private Map<String, Integer> groupCapacities = new HashMap<>();
+	
+	private QueueOverflowPolicy overflowPolicy = QueueOverflowPolicy.REJECT;
+	
+	private long blockTimeout = 1000L;
+	
+	private boolean prioritized = false;
+	
+	private boolean coalescing = false;
+	
+	private int maxConcurrency = 1;
+	
+	private Map<String, Integer> groupMaxConcurrency = new HashMap<>();
+	
+	/**
+	 * applies the common settings from the properties
+	 * 
+	 * @param settings
+	 */
+	protected void configure(QuartzSchedulerProperties.Queue settings) {
+		if (null == settings) {
+			return;
+		}
+		setCapacity(settings.getCapacity());
+		if (null != settings.getGroupCapacities()) {
+			setGroupCapacities(settings.getGroupCapacities());
+		}
+		setOverflowPolicy(settings.getOverflowPolicy());
+		setBlockTimeout(settings.getBlockTimeout());
+		setPrioritized(settings.isPrioritized());
+		setCoalescing(settings.isCoalescing());
+		setMaxConcurrency(settings.getMaxConcurrency());
+		if (null != settings.getGroupMaxConcurrency()) {
+			setGroupMaxConcurrency(settings.getGroupMaxConcurrency());
+		}
+		setUseVirtualThreads(settings.isUseVirtualThreads());
+	}
+	
+	/**
+	 * creates the queue for a group regarding the capacity settings
+	 * 
+	 * @param group
+	 * @param unique if only one instance per {@link QueuedInstance#getKey()} may be queued
+	 * @return
+	 */
+	GroupQueue createGroupQueue(String group, boolean unique) {
+		GroupQueue groupQueue = new GroupQueue(group, getCapacity(group), getOverflowPolicy(), getBlockTimeout(), unique, isPrioritized());
+		groupQueue.setCoalescing(isCoalescing());
+		groupQueue.setMaxConcurrency(getMaxConcurrency(group));
+		return groupQueue;
+	}
+	
+	/**
+	 * removes the queue of the group from the map if it's idle, so groups used once don't stay in memory.
+	 * A concurrent offer to the removed queue returns {@link GroupQueue.Offer#RETIRED} and has to be repeated.
+	 * 
+	 * @param groupQueues the queues of the service by group
+	 * @param groupQueue
+	 * @return true if the queue has been removed
+	 */
+	static boolean removeIfIdle(Map<String, GroupQueue> groupQueues, GroupQueue groupQueue) {
+		boolean[] removed = new boolean[1];
+		groupQueues.computeIfPresent(groupQueue.getGroup(), (group, current) -> {
+			removed[0] = current == groupQueue && groupQueue.retireIfIdle();
+			return removed[0] ? null : current;
+		});
+		return removed[0];
+	}
+	
 	/**
 	 * should return a list of all active groups submitted to the queue service
 	 * @return
 	 */
 	protected abstract Collection<String> getGroupKeys();
 	
+	/**
+	 * the queue of the group, has to be overridden by implementations using {@link GroupQueue}s
+	 * 
+	 * @param group
+	 * @return the queue or null if the group is unknown
+	 */
+	GroupQueue getGroupQueue(String group) {
+		return null;
+	}
+	
+	/**
+	 * the number of instances waiting for execution in the group's queue
+	 * 
+	 * @param group
+	 * @return
+	 */
+	public int getQueueSize(String group) {
+		GroupQueue groupQueue = getGroupQueue(group);
+		return null != groupQueue ? groupQueue.size() : 0;
+	}
+	
+	/**
+	 * the time when the oldest instance waiting for execution in the group's queue has been queued
+	 * 
+	 * @param group
+	 * @return time in milliseconds or -1 if nothing is queued
+	 */
+	public long getOldestQueuedAt(String group) {
+		GroupQueue groupQueue = getGroupQueue(group);
+		return null != groupQueue ? groupQueue.getOldestQueuedAt() : -1L;
+	}
+	
+	/**
+	 * the number of different {@link QueuedInstance#getKey()} waiting for execution in the group's queue
+	 * 
+	 * @param group
+	 * @return
+	 */
+	public int getQueuedKeyCount(String group) {
+		GroupQueue groupQueue = getGroupQueue(group);
+		return null != groupQueue ? groupQueue.getQueuedKeyCount() : 0;
+	}
+	
+	/**
+	 * the different {@link QueuedInstance#getKey()} waiting for execution in the group's queue
+	 * 
+	 * @param group
+	 * @return a copy of the keys
+	 */
+	public List<String> getQueuedKeys(String group) {
+		GroupQueue groupQueue = getGroupQueue(group);
+		return null != groupQueue ? groupQueue.getQueuedKeys() : Collections.emptyList();
+	}
+	
 	@Override
 	public Collection<String> getGroups() {
 		List<String> list = new ArrayList<>();
@@ -74,6 +205,197 @@ public abstract class AbstractQueueService<T> implements QueueService<T> {
 		this.waitForTerminationUnit = waitForTerminationUnit;
 	}
 	
+	/**
+	 * maximum number of queued instances per group
+	 * @return {@value GroupQueue#UNBOUNDED} (unbounded) per default if not set manually
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * maximum number of queued instances per group, {@value GroupQueue#UNBOUNDED} for unbounded queues.<br>
+	 * Has to be set before the service is used.
+	 * 
+	 * @param capacity
+	 */
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+	
+	/**
+	 * the capacity for the given group
+	 * 
+	 * @param group
+	 * @return the group's capacity or {@link #getCapacity()}
+	 */
+	public int getCapacity(String group) {
+		Integer groupCapacity = groupCapacities.get(group);
+		return null != groupCapacity ? groupCapacity.intValue() : capacity;
+	}
+	
+	public Map<String, Integer> getGroupCapacities() {
+		return groupCapacities;
+	}
+
+	/**
+	 * capacities of single groups, overriding {@link #getCapacity()}
+	 * 
+	 * @param groupCapacities
+	 */
+	public void setGroupCapacities(Map<String, Integer> groupCapacities) {
+		this.groupCapacities = new HashMap<>(groupCapacities);
+	}
+
+	/**
+	 * what happens if a queue has reached its capacity
+	 * @return {@link QueueOverflowPolicy#REJECT} per default if not set manually
+	 */
+	public QueueOverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public void setOverflowPolicy(QueueOverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * maximum time to wait for space with {@link QueueOverflowPolicy#BLOCK}
+	 * @return 1000 milliseconds per default if not set manually
+	 */
+	public long getBlockTimeout() {
+		return blockTimeout;
+	}
+
+	/**
+	 * maximum time in milliseconds to wait for space with {@link QueueOverflowPolicy#BLOCK}
+	 * @param blockTimeout
+	 */
+	public void setBlockTimeout(long blockTimeout) {
+		this.blockTimeout = blockTimeout;
+	}
+
+	/**
+	 * if queued instances are executed by {@link QueuedInstance#getPriority()} and {@link QueuedInstance#getDeadline()}
+	 * instead of the order they have been queued
+	 * @return false per default if not set manually
+	 */
+	public boolean isPrioritized() {
+		return prioritized;
+	}
+
+	/**
+	 * if queued instances are executed by {@link QueuedInstance#getPriority()} and {@link QueuedInstance#getDeadline()}
+	 * instead of the order they have been queued.<br>
+	 * Has to be set before the service is used.
+	 * 
+	 * @param prioritized
+	 */
+	public void setPrioritized(boolean prioritized) {
+		this.prioritized = prioritized;
+	}
+
+	/**
+	 * number of instances per group which may run at the same time
+	 * @return 1 per default if not set manually
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * number of instances per group which may run at the same time. With more than 1 the instances of a group 
+	 * are started in queue order, but may run in parallel, also instances with same {@link QueuedInstance#getKey()}.<br>
+	 * Has to be set before the service is used.
+	 * 
+	 * @param maxConcurrency
+	 */
+	public void setMaxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * the number of instances of the given group which may run at the same time
+	 * 
+	 * @param group
+	 * @return the group's setting or {@link #getMaxConcurrency()}
+	 */
+	public int getMaxConcurrency(String group) {
+		Integer groupConcurrency = groupMaxConcurrency.get(group);
+		return null != groupConcurrency ? groupConcurrency.intValue() : maxConcurrency;
+	}
+
+	public Map<String, Integer> getGroupMaxConcurrency() {
+		return groupMaxConcurrency;
+	}
+
+	/**
+	 * concurrency of single groups, overriding {@link #getMaxConcurrency()}
+	 * 
+	 * @param groupMaxConcurrency
+	 */
+	public void setGroupMaxConcurrency(Map<String, Integer> groupMaxConcurrency) {
+		this.groupMaxConcurrency = new HashMap<>(groupMaxConcurrency);
+	}
+
+	/**
+	 * if a new instance is merged into the waiting one with same {@link QueuedInstance#getKey()}
+	 * @return false per default if not set manually
+	 */
+	public boolean isCoalescing() {
+		return coalescing;
+	}
+
+	/**
+	 * if a new instance is merged into the waiting one with same {@link QueuedInstance#getKey()} 
+	 * by {@link QueuedInstance#coalesce(QueuedInstance)} instead of being queued or rejected, 
+	 * so there is at most one waiting execution per key.<br>
+	 * Has to be set before the service is used.
+	 * 
+	 * @param coalescing
+	 */
+	public void setCoalescing(boolean coalescing) {
+		this.coalescing = coalescing;
+	}
+
+	/**
+	 * if queued instances should be executed on virtual threads. Only has an effect on JDK 21+.
+	 * @return false per default if not set manually
+	 */
+	public boolean isUseVirtualThreads() {
+		return useVirtualThreads;
+	}
+
+	/**
+	 * if queued instances should be executed on virtual threads. Only has an effect on JDK 21+, 
+	 * otherwise the default threads are used.<br>
+	 * Has to be set before the service is used. Instances of one group are still executed one after another.
+	 * 
+	 * @param useVirtualThreads
+	 */
+	public void setUseVirtualThreads(boolean useVirtualThreads) {
+		this.useVirtualThreads = useVirtualThreads;
+	}
+	
+	/**
+	 * creates an executor service starting a virtual thread per task if {@link #isUseVirtualThreads()} is set and the JVM supports it
+	 * 
+	 * @param namePrefix prefix of the thread names
+	 * @param LOG the logger to log if virtual threads are not available
+	 * @return the executor service or null if virtual threads are not used
+	 */
+	protected ExecutorService createVirtualThreadExecutor(String namePrefix, Log LOG) {
+		if (!isUseVirtualThreads()) {
+			return null;
+		}
+		ExecutorService executorService = VirtualThreads.newThreadPerTaskExecutor(namePrefix);
+		if (null == executorService && null != LOG) {
+			LOG.warn("virtual threads are configured, but not supported by this JVM (" 
+					+ System.getProperty("java.version") + "). Using platform threads.");
+		}
+		return executorService;
+	}
+	
 	/**
 	 * shuts down the executor service waiting the configured time and catches possible exceptions
 	 * 
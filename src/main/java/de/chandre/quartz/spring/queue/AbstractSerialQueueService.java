@@ -0,0 +1,251 @@
+package de.chandre.quartz.spring.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Base for queue services executing the queued instances with a {@link SerialGroupExecutor}.<br>
+ * Instances of the same group are executed one after another (queued {@link BatchQueuedInstance}s together), 
+ * or up to {@link #getMaxConcurrency(String)} at the same time. All groups share a fixed pool of threads
+ * (or virtual threads, see {@link #setUseVirtualThreads(boolean)}).
+ * The result of each queued instance is provided as {@link CompletableFuture}.
+ *
+ * @author André
+ * @since 1.0.6
+ *
+ * @param <T>
+ */
+public abstract class AbstractSerialQueueService<T> extends AbstractQueueService<T> {
+
+	private static final Log LOG = LogFactory.getLog(AbstractSerialQueueService.class);
+
+	public static final int DEFAULT_POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	private volatile ExecutorService executorService;
+	private volatile SerialGroupExecutor groupExecutor;
+
+	private Map<String, GroupQueue> jobQueueMap = new ConcurrentHashMap<>();
+
+	private boolean multipleInstancesAllowed;
+
+	private int poolSize;
+
+	/**
+	 *
+	 * @param allowMultipleInstances to configure if more than one {@link QueuedInstance}
+	 * 	with same {@link QueuedInstance#getKey()} is allowed (true) ore not (false).
+	 * @param poolSize the number of threads shared by all groups
+	 */
+	protected AbstractSerialQueueService(boolean allowMultipleInstances, int poolSize) {
+		super();
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("poolSize must be greater than 0");
+		}
+		this.multipleInstancesAllowed = allowMultipleInstances;
+		this.poolSize = poolSize;
+	}
+
+	/**
+	 * prefix for the names of the worker threads
+	 * @return
+	 */
+	protected abstract String getThreadNamePrefix();
+
+	/**
+	 * creates the executor on first use, so settings like {@link #setUseVirtualThreads(boolean)} can be applied after construction
+	 * @return
+	 */
+	SerialGroupExecutor getGroupExecutor() {
+		SerialGroupExecutor executor = this.groupExecutor;
+		if (null == executor) {
+			synchronized (this) {
+				executor = this.groupExecutor;
+				if (null == executor) {
+					ExecutorService executorService = createVirtualThreadExecutor(getThreadNamePrefix(), LOG);
+					if (null == executorService) {
+						AtomicInteger threadNumber = new AtomicInteger();
+						executorService = Executors.newFixedThreadPool(poolSize, runnable -> {
+							Thread thread = new Thread(runnable, getThreadNamePrefix() + threadNumber.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						});
+					}
+					this.executorService = executorService;
+					executor = new SerialGroupExecutor(executorService, this::getMaxConcurrency);
+					this.groupExecutor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * the number of threads shared by all groups. Not used with {@link #isUseVirtualThreads()}
+	 * @return
+	 */
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * if more than one {@link QueuedInstance} with same {@link QueuedInstance#getKey()} is allowed
+	 * @return
+	 */
+	public boolean isMultipleInstancesAllowed() {
+		return multipleInstancesAllowed;
+	}
+
+	@PreDestroy
+	public void destroy() {
+		shutdown();
+	}
+
+	private synchronized void shutdown() {
+		if (null != this.groupExecutor) {
+			this.groupExecutor.clear();
+			super.shutdownExecutor(executorService, e -> logException(e));
+		}
+		this.groupExecutor = null;
+		this.executorService = null;
+		this.jobQueueMap.values().forEach(groupQueue -> groupQueue.clear().forEach(entry -> entry.getResult().cancel(false)));
+		this.jobQueueMap.clear();
+	}
+
+	protected Void logException(Exception e) {
+		if (null != LOG) {
+			LOG.warn("ExecutorService didn't shut down within " + getWaitForTerminationTime() + " " + getWaitForTerminationUnit());
+			LOG.debug(e.getMessage(), e);
+		}
+		return null;
+	}
+
+	/**
+	 * adds the instance to the queue of its group
+	 *
+	 * @param instance
+	 * @return the future completed with the result of the execution or null if the instance has not been queued.
+	 * 	Completed exceptionally with a {@link RejectedExecutionException} if the executor rejects the execution
+	 */
+	protected CompletableFuture<JobExecutionResult> submit(QueuedInstance instance) {
+		LOG.debug("try queuing job "+ instance.getKey() + " with hash: "+ instance.hashCode());
+
+		GroupQueue groupQueue;
+		GroupQueue.Offer offer;
+		do {
+			groupQueue = getOrCreateGroupQueue(instance.getGroup());
+			try {
+				offer = groupQueue.offer(instance);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+			// the queue has been drained and removed meanwhile
+		} while (offer.isRetired());
+		if (!offer.isAccepted()) {
+			LOG.debug("queued quartz instance " + instance.getKey() + " has been rejected");
+			return null;
+		}
+		if (offer.isAdded()) {
+			// one execution per added entry, dropped and coalesced entries are replaced by the new one
+			final GroupQueue queue = groupQueue;
+			try {
+				getGroupExecutor().execute(instance.getGroup(), () -> executeNext(queue));
+			} catch (RejectedExecutionException e) {
+				LOG.warn("executor rejected queued quartz instance " + instance.getKey());
+				// otherwise the entry would stay queued and block its key without ever being executed
+				if (groupQueue.remove(offer.getEntry())) {
+					offer.getEntry().getResult().completeExceptionally(e);
+				}
+				if (groupQueue.isEmpty()) {
+					removeIfIdle(jobQueueMap, groupQueue);
+				}
+			}
+		}
+		return offer.getEntry().getResult();
+	}
+
+	private GroupQueue getOrCreateGroupQueue(String group) {
+		GroupQueue groupQueue = jobQueueMap.get(group);
+		if (null == groupQueue) {
+			groupQueue = createGroupQueue(group, !multipleInstancesAllowed);
+			groupQueue.setDropListener(entry -> entry.getResult().complete(new JobExecutionResult(false,
+					new RejectedExecutionException("queue of group " + entry.getInstance().getGroup()
+							+ " is full, dropped queued quartz instance " + entry.getInstance().getName()))));
+			GroupQueue otherGroupQueue = jobQueueMap.putIfAbsent(group, groupQueue);
+			if (null != otherGroupQueue) {
+				groupQueue = otherGroupQueue;
+			}
+		}
+		return groupQueue;
+	}
+
+	/*
+	 * one task per added entry, so the tasks following a batch may find the queue empty
+	 */
+	private void executeNext(GroupQueue groupQueue) {
+		try {
+			executeBatch(groupQueue);
+		} finally {
+			// the queue of a drained group is removed
+			if (groupQueue.isEmpty()) {
+				removeIfIdle(jobQueueMap, groupQueue);
+			}
+		}
+	}
+
+	private void executeBatch(GroupQueue groupQueue) {
+		List<GroupQueue.Entry> entries = groupQueue.pollBatch().stream()
+				.filter(entry -> !entry.getResult().isCancelled())
+				.collect(Collectors.toList());
+		if (entries.isEmpty()) {
+			return;
+		}
+		JobExecutionResult result;
+		try {
+			if (entries.get(0).getInstance() instanceof BatchQueuedInstance) {
+				result = new JobCallable(entries.stream()
+						.map(entry -> (BatchQueuedInstance) entry.getInstance())
+						.collect(Collectors.toList())).call();
+			} else {
+				result = new JobCallable(entries.get(0).getInstance()).call();
+			}
+		} catch (Exception e) {
+			result = new JobExecutionResult(false, e);
+		}
+		for (GroupQueue.Entry entry : entries) {
+			entry.getResult().complete(result);
+		}
+	}
+
+	@Override
+	GroupQueue getGroupQueue(String group) {
+		return jobQueueMap.get(group);
+	}
+
+	@Override
+	protected Collection<String> getGroupKeys() {
+		return jobQueueMap.keySet().stream()
+				.filter(group -> !QueuedInstance.DEFAULT_GROUP.equals(group))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * terminates the internal executor service and cancels all queued instances. A new one is created with the next queued instance.
+	 */
+	public void reset() {
+		shutdown();
+	}
+}
@@ -1,13 +1,19 @@
 package de.chandre.quartz.spring.queue;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -15,11 +21,22 @@ import javax.annotation.PreDestroy;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import de.chandre.quartz.spring.QuartzSchedulerProperties;
+
 /**
  * The async queue service puts the {@link QueuedInstance} to a queue and and returns true if the {@link QueuedInstance} was added.<br>
  * Execution will happen afterwards.<br>
  * For Quartz the job may finished successfully and really fast. 
- * As alternative the {@link CallbackQueueServiceImpl} will return a result.
+ * As alternative the {@link CallbackQueueServiceImpl} will return a result.<br>
+ * <br>
+ * The dispatcher thread is blocked as long as no group has queued instances,
+ * {@link #queueMe(QueuedInstance)} wakes it up. Instances of one group are executed one after another, 
+ * queued {@link BatchQueuedInstance}s together. Groups may run more instances in parallel, see {@link #setMaxConcurrency(int)}.<br>
+ * The instances are executed by an own {@link ForkJoinPool} (see {@link #setParallelism(int)}), 
+ * so they don't occupy the {@link ForkJoinPool#commonPool()} used by parallel streams of the application.
+ * A group having more queued instances is handed back to the end of the dispatcher's queue after each instance, 
+ * so the groups are executed in turns.<br>
+ * The queues may be bounded, see {@link #setCapacity(int)} and {@link #setOverflowPolicy(QueueOverflowPolicy)}.
  * 
  * @author André
  * @since 1.0.5
@@ -28,14 +45,36 @@ public class AsyncQueueServiceImpl extends AbstractQueueService<Boolean> {
 	
 	private static final Log LOG = LogFactory.getLog(AsyncQueueServiceImpl.class);
 	
-	private Map<String, Queue<QueuedInstance>> jobQueueMap = new ConcurrentHashMap<>();
+	public static final String DISPATCHER_THREAD_NAME = "AsyncQueueService-dispatcher";
+
+	public static final String WORKER_THREAD_NAME_PREFIX = "AsyncQueueService-worker-";
+
+	public static final int DEFAULT_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	private Map<String, GroupQueue> jobQueueMap = new ConcurrentHashMap<>();
+
+	/*
+	 * groups having at least one queued instance, once per taken permit
+	 */
+	private BlockingQueue<GroupQueue> readyGroups = new LinkedBlockingQueue<>();
 	
 	private ExecutorService executorService;
+
+	/*
+	 * a fork join pool or virtual threads, created by this service
+	 */
+	private ExecutorService workerExecutorService;
+
+	private int parallelism = DEFAULT_PARALLELISM;
+
+	private volatile boolean running;
+
+	private volatile Thread dispatcherThread;
 	
 	private boolean multipleInstancesAllowed;
 	
 	/**
-	 * When using this constructor only one instance with same name will be queued
+	 * When using this constructor only one instance with same {@link QueuedInstance#getKey()} will be queued
 	 */
 	public AsyncQueueServiceImpl() {
 		this(false);
@@ -51,6 +90,18 @@ public class AsyncQueueServiceImpl extends AbstractQueueService<Boolean> {
 		this.multipleInstancesAllowed = allowMultipleInstances;
 	}
 	
+	/**
+	 *
+	 * @param settings the queue settings from {@link QuartzSchedulerProperties#getQueue()}
+	 */
+	public AsyncQueueServiceImpl(QuartzSchedulerProperties.Queue settings) {
+		this(settings.isAllowMultipleInstances());
+		configure(settings);
+		if (settings.getPoolSize() > 0) {
+			setParallelism(settings.getPoolSize());
+		}
+	}
+
 	@PostConstruct
 	public void init() {
 		runQueue();
@@ -62,9 +113,20 @@ public class AsyncQueueServiceImpl extends AbstractQueueService<Boolean> {
 	}
 	
 	private void shutdown() {
-		super.shutdownExecutor(executorService, e -> logException(e));
+		this.running = false;
+		if (null != executorService) {
+			// the dispatcher is waiting for ready groups, so it has to be interrupted
+			executorService.shutdownNow();
+			super.shutdownExecutor(executorService, e -> logException(e));
+		}
+		if (null != workerExecutorService) {
+			super.shutdownExecutor(workerExecutorService, e -> logException(e));
+			this.workerExecutorService = null;
+		}
 		this.executorService = null;
+		this.dispatcherThread = null;
 		this.jobQueueMap.clear();
+		this.readyGroups.clear();
 	}
 	
 	protected Void logException(Exception e) {
@@ -78,30 +140,132 @@ public class AsyncQueueServiceImpl extends AbstractQueueService<Boolean> {
 	@Override
 	public Boolean queueMe(QueuedInstance instance) {
 		LOG.debug("try queuing job "+ instance.getKey() + " with hash: "+ instance.hashCode());
-		Queue<QueuedInstance> jobQueue = jobQueueMap.get(instance.getGroup());
-		if (null == jobQueue) {
-			jobQueue = new ConcurrentLinkedQueue<QueuedInstance>();
-			Queue<QueuedInstance> otherJobQueue = jobQueueMap.putIfAbsent(instance.getGroup(), jobQueue);
-			if (null != otherJobQueue) {
-				jobQueue = otherJobQueue;
+		GroupQueue groupQueue;
+		GroupQueue.Offer offer;
+		do {
+			groupQueue = getOrCreateGroupQueue(instance.getGroup());
+			try {
+				offer = groupQueue.offer(instance);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return Boolean.FALSE;
 			}
+			// the queue has been drained and removed meanwhile
+		} while (offer.isRetired());
+		if (offer.isAccepted()) {
+			schedule(groupQueue);
+		} else {
+			LOG.debug("queued quartz instance " + instance.getKey() + " has been rejected");
 		}
-		if (!multipleInstancesAllowed) {
-			Optional<QueuedInstance> queuedInstance = jobQueue.stream().filter(qi -> qi.getName().equals(instance.getName())).findFirst();
-			if (queuedInstance.isPresent()) {
-				return Boolean.FALSE;
+		return Boolean.valueOf(offer.isAccepted());
+	}
+	
+	private GroupQueue getOrCreateGroupQueue(String group) {
+		GroupQueue groupQueue = jobQueueMap.get(group);
+		if (null == groupQueue) {
+			groupQueue = createGroupQueue(group, !multipleInstancesAllowed);
+			groupQueue.setDropListener(entry -> LOG.info("queue of group " + entry.getInstance().getGroup() 
+					+ " is full, dropped queued quartz instance " + entry.getInstance().getName()));
+			GroupQueue otherGroupQueue = jobQueueMap.putIfAbsent(group, groupQueue);
+			if (null != otherGroupQueue) {
+				groupQueue = otherGroupQueue;
 			}
 		}
-		return Boolean.valueOf(jobQueue.add(instance));
+		return groupQueue;
 	}
 	
-	Map<String, Queue<QueuedInstance>> getQueueMap() {
+	/**
+	 * hands the group over to the dispatcher if less than {@link GroupQueue#getMaxConcurrency()} instances of it
+	 * are waiting for dispatch or running
+	 * @param groupQueue
+	 */
+	private void schedule(GroupQueue groupQueue) {
+		if (groupQueue.tryAcquire()) {
+			readyGroups.offer(groupQueue);
+		}
+	}
+
+	/**
+	 * releases the permit of the group after an instance has been executed (or nothing was there to execute)
+	 * and hands it over to the dispatcher again if there are more queued instances. 
+	 * The queue of a drained group is removed.
+	 * @param groupQueue
+	 */
+	private void release(GroupQueue groupQueue) {
+		groupQueue.release();
+		// an instance may have been added after the last poll, but before the permit was returned
+		if (!groupQueue.isEmpty()) {
+			schedule(groupQueue);
+		} else {
+			removeIfIdle(jobQueueMap, groupQueue);
+		}
+	}
+
+	Map<String, GroupQueue> getQueueMap() {
 		return jobQueueMap;
 	}
 	
+	@Override
+	GroupQueue getGroupQueue(String group) {
+		return jobQueueMap.get(group);
+	}
+
+	Thread getDispatcherThread() {
+		return dispatcherThread;
+	}
+
+	/**
+	 * the executor running the queued instances: a {@link ForkJoinPool} with {@link #getParallelism()} threads,
+	 * a new virtual thread per instance if {@link #isUseVirtualThreads()}
+	 * @return the executor or null if the service isn't running
+	 */
+	public Executor getWorkerExecutor() {
+		return workerExecutorService;
+	}
+
+	/**
+	 * the maximum number of queued instances executed at the same time by all groups. Not used with {@link #isUseVirtualThreads()}
+	 * @return {@link #DEFAULT_PARALLELISM} per default if not set manually
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * the maximum number of queued instances executed at the same time by all groups. 
+	 * Has to be set before {@link #init()}, takes effect with {@link #reset()} otherwise.
+	 * 
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be greater than 0");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/*
+	 * tasks are never joined, so the pool's queues are processed in submission order (async mode)
+	 */
+	private ForkJoinPool createWorkerPool() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		return new ForkJoinPool(parallelism, pool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName(WORKER_THREAD_NAME_PREFIX + threadNumber.incrementAndGet());
+			return thread;
+		}, (thread, e) -> LOG.error("queued quartz instance throwed an error on " + thread.getName(), e), true);
+	}
+
 	private void runQueue() {
-		executorService = Executors.newSingleThreadExecutor();
-		executorService.execute(new QueueTask(this));
+		ExecutorService virtualThreadExecutor = createVirtualThreadExecutor(WORKER_THREAD_NAME_PREFIX, LOG);
+		this.workerExecutorService = null != virtualThreadExecutor ? virtualThreadExecutor : createWorkerPool();
+		this.running = true;
+		this.executorService = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, DISPATCHER_THREAD_NAME);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executorService.execute(new QueueTask(this));
 	}
 	
 	private static class QueueTask implements Runnable {
@@ -111,37 +275,89 @@ public class AsyncQueueServiceImpl extends AbstractQueueService<Boolean> {
 		QueueTask(AsyncQueueServiceImpl serviceInstance) {
 			this.service = serviceInstance;
 		}
+
 		@Override
 		public void run() {
-			
-			while(true) {
-				
-				service.getQueueMap().values().parallelStream().forEach(jobQueue -> {
-					QueuedInstance queuedInstance = jobQueue.poll();
-					if (null != queuedInstance) {
-						LOG.info("starting queued quartz instance " + queuedInstance.getName());
+			service.dispatcherThread = Thread.currentThread();
+			while(service.running) {
+				GroupQueue groupQueue;
+				try {
+					groupQueue = service.readyGroups.take();
+				} catch (InterruptedException e) {
+					LOG.debug("queue dispatcher interrupted");
+					Thread.currentThread().interrupt();
+					return;
+				}
+				List<GroupQueue.Entry> batch = groupQueue.pollBatch();
+				if (batch.isEmpty()) {
+					service.release(groupQueue);
+					continue;
+				}
+				QueuedInstance queuedInstance = batch.get(0).getInstance();
+				try {
+					service.workerExecutorService.execute(() -> {
 						try {
-							boolean result = queuedInstance.run();
-							if (!result) {
-								LOG.info("queued quartz instance " + queuedInstance.getName() + " ended with false");
+							if (queuedInstance instanceof BatchQueuedInstance) {
+								executeBatch(batch);
+							} else {
+								execute(queuedInstance);
 							}
-						} catch (Exception e) {
-							LOG.error("queued quartz instance thowed an exception: " + queuedInstance.getName());
-							LOG.error(e.getMessage(), e);
+						} finally {
+							service.release(groupQueue);
 						}
-					}
-				});
+					});
+				} catch (RuntimeException e) {
+					LOG.error("queued quartz instance could not be started: " + queuedInstance.getName());
+					LOG.error(e.getMessage(), e);
+					service.release(groupQueue);
+				}
+			}
+		}
+			
+		private static void executeBatch(List<GroupQueue.Entry> batch) {
+			List<BatchQueuedInstance> instances = new ArrayList<>(batch.size());
+			for (GroupQueue.Entry entry : batch) {
+				instances.add((BatchQueuedInstance) entry.getInstance());
+			}
+			BatchQueuedInstance queuedInstance = instances.get(0);
+			LOG.info("starting queued quartz instance " + queuedInstance.getName() + " with batch of " + instances.size());
+			try {
+				boolean result = queuedInstance.runBatch(instances);
+				if (!result) {
+					LOG.info("queued quartz instance " + queuedInstance.getName() + " ended with false");
+				}
+			} catch (Exception e) {
+				LOG.error("queued quartz instance thowed an exception: " + queuedInstance.getName());
+				LOG.error(e.getMessage(), e);
+			}
+		}
+				
+		private static void execute(QueuedInstance queuedInstance) {
+			LOG.info("starting queued quartz instance " + queuedInstance.getName());
+			try {
+				boolean result = queuedInstance.run();
+				if (!result) {
+					LOG.info("queued quartz instance " + queuedInstance.getName() + " ended with false");
+				}
+			} catch (Exception e) {
+				LOG.error("queued quartz instance thowed an exception: " + queuedInstance.getName());
+				LOG.error(e.getMessage(), e);
 			}
 		}
 	}
 	
 	@Override
 	protected Collection<String> getGroupKeys() {
-		return this.jobQueueMap.keySet();
+		return this.jobQueueMap.keySet().stream()
+				.filter(group -> !QueuedInstance.DEFAULT_GROUP.equals(group))
+				.collect(Collectors.toList());
 	}
 	
+	/**
+	 * terminates the dispatcher, clears all queues and starts a new dispatcher
+	 */
 	public void reset() {
 		shutdown();
-		this.executorService = Executors.newSingleThreadExecutor();
+		runQueue();
 	}
 }
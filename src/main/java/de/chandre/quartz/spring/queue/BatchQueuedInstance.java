@@ -0,0 +1,44 @@
+package de.chandre.quartz.spring.queue;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link QueuedInstance} whose work can be done together with other queued instances, 
+ * e.g. writing to a database or a remote system with one call.<br>
+ * When such an instance is next in the queue of its group, the queue services take it and the following queued instances 
+ * of the same class, up to {@link #getMaxBatchSize()}, and execute them with one call of {@link #runBatch(List)} 
+ * on the first instance. Instances of other classes end a batch, so the order within the group is kept.<br>
+ * With {@link CallbackQueueServiceImpl} and {@link CompletableQueueServiceImpl} the result is given to every instance of the batch.
+ * 
+ * @author André
+ * @since 1.0.6
+ */
+public interface BatchQueuedInstance extends QueuedInstance {
+	
+	int DEFAULT_MAX_BATCH_SIZE = 100;
+	
+	/**
+	 * maximum number of instances executed with one call of {@link #runBatch(List)}, read from the first instance of a batch.
+	 * @return default: {@value #DEFAULT_MAX_BATCH_SIZE}
+	 */
+	default int getMaxBatchSize() {
+		return DEFAULT_MAX_BATCH_SIZE;
+	}
+	
+	/**
+	 * implement your code here to be executed for all instances of the batch
+	 * 
+	 * @param batch this instance followed by the other instances in queue order, all of the same class
+	 * @return should return true if all instances have been processed successfully
+	 */
+	boolean runBatch(List<BatchQueuedInstance> batch);
+	
+	/**
+	 * executes this instance alone
+	 */
+	@Override
+	default boolean run() {
+		return runBatch(Collections.singletonList(this));
+	}
+}
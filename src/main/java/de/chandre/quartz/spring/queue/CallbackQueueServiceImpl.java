@@ -1,22 +1,17 @@
 package de.chandre.quartz.spring.queue;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
-import javax.annotation.PreDestroy;
-
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import de.chandre.quartz.spring.QuartzSchedulerProperties;
 
 /**
- * This service creates a {@link JobCallable} and submits it to a SingleThreadExecutor.<br>
+ * This service creates a {@link JobCallable} and submits it to a {@link SerialGroupExecutor} (see {@link AbstractSerialQueueService}).<br>
+ * Callables of the same group are executed one after another, all groups share a fixed pool of threads.<br>
  * as a result you will get the a {@link Future} which returns a {@link JobExecutionResult} or <i>null</i> if no multiple instance are allowed.<br>
+ * The queues may be bounded, see {@link #setCapacity(int)} and {@link #setOverflowPolicy(QueueOverflowPolicy)}. 
+ * If the instance could not be queued <i>null</i> is returned, if it has been dropped with {@link QueueOverflowPolicy#DROP_OLDEST} the 
+ * {@link JobExecutionResult} contains a {@link RejectedExecutionException}.<br>
  * <br>
  * For example, if your Job implements {@link QueuedInstance} you can do the following in your execution method: <br>
  * <code>
@@ -27,16 +22,7 @@ import org.apache.commons.logging.LogFactory;
  * @author André
  * @since 1.0.5
  */
-public class CallbackQueueServiceImpl extends AbstractQueueService<Future<JobExecutionResult>> {
-	
-	private static final Log LOG = LogFactory.getLog(CallbackQueueServiceImpl.class);
-	
-	private ExecutorService defaultExecutorService = Executors.newSingleThreadExecutor();
-	
-	private Map<String, ExecutorService> jobQueueMap = new ConcurrentHashMap<>();
-	private Set<String> offeredInstances = Collections.newSetFromMap(new ConcurrentHashMap<>());
-	
-	private boolean multipleInstancesAllowed;
+public class CallbackQueueServiceImpl extends AbstractSerialQueueService<Future<JobExecutionResult>> {
 	
 	/**
 	 * standard constructor which not allows multiple instances of objects with same  {@link QueuedInstance#getKey()}
@@ -51,71 +37,35 @@ public class CallbackQueueServiceImpl extends AbstractQueueService<Future<JobExe
 	 * 	with same {@link QueuedInstance#getKey()} is allowed (true) ore not (false). 
 	 */
 	public CallbackQueueServiceImpl(boolean allowMultipleInstances) {
-		super();
-		this.multipleInstancesAllowed = allowMultipleInstances;
-	}
-
-
-	@PreDestroy
-	public void destroy() {
-		shutdown();
+		this(allowMultipleInstances, DEFAULT_POOL_SIZE);
 	}
 	
-	private void shutdown() {
-		
-		super.shutdownExecutor(defaultExecutorService, e -> logException(e));
-		this.defaultExecutorService = null;
-		this.jobQueueMap.values().stream().parallel().forEach(executor -> shutdownExecutor(executor, e -> logException(e)));
-		this.jobQueueMap.clear();
-		this.offeredInstances.clear();
+	/**
+	 * 
+	 * @param allowMultipleInstances to configure if more than one {@link QueuedInstance} 
+	 * 	with same {@link QueuedInstance#getKey()} is allowed (true) ore not (false). 
+	 * @param poolSize the number of threads shared by all groups
+	 */
+	public CallbackQueueServiceImpl(boolean allowMultipleInstances, int poolSize) {
+		super(allowMultipleInstances, poolSize);
 	}
 	
-	protected Void logException(Exception e) {
-		if (null != LOG) {
-			LOG.warn("ExecutorService didn't shut down within " + getWaitForTerminationTime() + " " + getWaitForTerminationUnit());
-			LOG.debug(e.getMessage(), e);
-		}
-		return null;
+	/**
+	 * 
+	 * @param settings the queue settings from {@link QuartzSchedulerProperties#getQueue()}
+	 */
+	public CallbackQueueServiceImpl(QuartzSchedulerProperties.Queue settings) {
+		this(settings.isAllowMultipleInstances(), settings.getPoolSize() > 0 ? settings.getPoolSize() : DEFAULT_POOL_SIZE);
+		configure(settings);
 	}
 	
 	@Override
-	public Future<JobExecutionResult> queueMe(QueuedInstance instance) {
-		String instanceKey = instance.getKey();
-		LOG.debug("try queuing job "+ instanceKey + " with hash: "+ instance.hashCode());
-		
-		if (!multipleInstancesAllowed && offeredInstances.contains(instanceKey)) {
-			return null;
-		}
-		offeredInstances.add(instanceKey);
-		JobCallable callable = new JobCallable(instance, offeredInstances);
-		
-		Future<JobExecutionResult> callResult = null;
-		if (QueuedInstance.DEFAULT_GROUP.equals(instance.getGroup())) {
-			callResult = this.defaultExecutorService.submit(callable);
-		} else {
-			 ExecutorService executorService = this.jobQueueMap.get(instance.getGroup());
-			 if (null == executorService) {
-				 executorService = Executors.newSingleThreadExecutor();
-				 ExecutorService otherExecutorService = this.jobQueueMap.putIfAbsent(instance.getGroup(), executorService);
-				 if (null !=otherExecutorService) {
-					 executorService = otherExecutorService;
-				 }
-			 }
-			 callResult = executorService.submit(callable);
-		}
-		return callResult;
+	protected String getThreadNamePrefix() {
+		return "CallbackQueueService-worker-";
 	}
 	
 	@Override
-	protected Collection<String> getGroupKeys() {
-		return jobQueueMap.keySet();
-	}
-	
-	/**
-	 * terminates all internal executor services and creates a default new executor
-	 */
-	public void reset() {
-		shutdown();
-		this.defaultExecutorService = Executors.newSingleThreadExecutor();
+	public Future<JobExecutionResult> queueMe(QueuedInstance instance) {
+		return submit(instance);
 	}
 }
@@ -0,0 +1,75 @@
+package de.chandre.quartz.spring.queue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+
+import de.chandre.quartz.spring.QuartzSchedulerProperties;
+
+/**
+ * Same as {@link CallbackQueueServiceImpl}, but the result is a {@link CompletionStage}, so the job doesn't have to block
+ * a thread while waiting for the result.<br>
+ * The returned stage is never null. If the instance could not be queued, it is already completed
+ * with a {@link JobExecutionResult} containing a {@link RejectedExecutionException}.
+ * If the queue has been reset before the instance was executed, the stage is cancelled.<br>
+ * <br>
+ * For example, if your Job implements {@link QueuedInstance} you can do the following in your execution method: <br>
+ * <code>
+ * queueService.queueMe(this).thenAccept(jer -&gt; LOGGER.info("executed: " + jer.isExecuted()));<br>
+ * </code>
+ *
+ * @author André
+ * @since 1.0.6
+ */
+public class CompletableQueueServiceImpl extends AbstractSerialQueueService<CompletionStage<JobExecutionResult>> {
+
+	/**
+	 * standard constructor which not allows multiple instances of objects with same  {@link QueuedInstance#getKey()}
+	 */
+	public CompletableQueueServiceImpl() {
+		this(false);
+	}
+
+	/**
+	 *
+	 * @param allowMultipleInstances to configure if more than one {@link QueuedInstance}
+	 * 	with same {@link QueuedInstance#getKey()} is allowed (true) ore not (false).
+	 */
+	public CompletableQueueServiceImpl(boolean allowMultipleInstances) {
+		this(allowMultipleInstances, DEFAULT_POOL_SIZE);
+	}
+
+	/**
+	 *
+	 * @param allowMultipleInstances to configure if more than one {@link QueuedInstance}
+	 * 	with same {@link QueuedInstance#getKey()} is allowed (true) ore not (false).
+	 * @param poolSize the number of threads shared by all groups
+	 */
+	public CompletableQueueServiceImpl(boolean allowMultipleInstances, int poolSize) {
+		super(allowMultipleInstances, poolSize);
+	}
+
+	/**
+	 *
+	 * @param settings the queue settings from {@link QuartzSchedulerProperties#getQueue()}
+	 */
+	public CompletableQueueServiceImpl(QuartzSchedulerProperties.Queue settings) {
+		this(settings.isAllowMultipleInstances(), settings.getPoolSize() > 0 ? settings.getPoolSize() : DEFAULT_POOL_SIZE);
+		configure(settings);
+	}
+
+	@Override
+	protected String getThreadNamePrefix() {
+		return "CompletableQueueService-worker-";
+	}
+
+	@Override
+	public CompletionStage<JobExecutionResult> queueMe(QueuedInstance instance) {
+		CompletableFuture<JobExecutionResult> result = submit(instance);
+		if (null == result) {
+			result = CompletableFuture.completedFuture(new JobExecutionResult(false,
+					new RejectedExecutionException("queued quartz instance " + instance.getKey() + " has been rejected")));
+		}
+		return result;
+	}
+}
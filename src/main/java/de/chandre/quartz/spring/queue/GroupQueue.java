@@ -0,0 +1,571 @@
+package de.chandre.quartz.spring.queue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The queued instances of one group, used by the queue services.<br>
+ * The queue may be bounded, what happens if it's full is configured by a {@link QueueOverflowPolicy}.
+ * The latest queued entry of each {@link QueuedInstance#getKey()} is held in an index,
+ * so checking for duplicates and coalescing don't have to walk through the queue.
+ * A coalescing queue holds at most one entry per key, a new instance is merged into the queued one
+ * by {@link QueuedInstance#coalesce(QueuedInstance)}.<br>
+ * Services remove the queue of a group when it has been drained, see {@link #retireIfIdle()}.<br>
+ * A prioritized queue is a heap ordered by {@link QueuedInstance#getPriority()},
+ * then {@link QueuedInstance#getDeadline()} and the queuing order, so offering and polling cost O(log n).
+ * Finding the oldest entry (for {@link QueueOverflowPolicy#DROP_OLDEST} and {@link #getOldestQueuedAt()})
+ * walks through the heap in that case.
+ *
+ * @author André
+ * @since 1.0.6
+ */
+class GroupQueue {
+
+	/**
+	 * capacity of unbounded queues
+	 */
+	static final int UNBOUNDED = 0;
+
+	/**
+	 * higher priority first, earlier deadline first, instances without deadline last, then first queued first
+	 */
+	static final Comparator<Entry> PRIORITY_ORDER = Comparator.comparingInt((Entry entry) -> -entry.priority)
+			.thenComparingLong(entry -> entry.deadline > QueuedInstance.NO_DEADLINE ? entry.deadline : Long.MAX_VALUE)
+			.thenComparingLong(entry -> entry.sequence);
+
+	private final String group;
+	private final int capacity;
+	private final QueueOverflowPolicy overflowPolicy;
+	private final long blockTimeoutNanos;
+	private final boolean unique;
+	private final boolean prioritized;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	private final Queue<Entry> entries;
+	private final Map<String, Entry> index = new HashMap<>();
+
+	private long sequence = 0L;
+
+	private Consumer<Entry> dropListener;
+
+	private boolean coalescing = false;
+
+	private boolean retired = false;
+
+	private int maxConcurrency = 1;
+
+	/*
+	 * used by dispatchers: the number of permits taken by dispatches waiting for execution and running instances
+	 */
+	private final AtomicInteger permits = new AtomicInteger(0);
+
+	/**
+	 *
+	 * @param group the group name
+	 * @param capacity maximum number of queued entries, {@value #UNBOUNDED} for no limit
+	 * @param overflowPolicy what to do if the queue is full
+	 * @param blockTimeout maximum time in milliseconds to wait with {@link QueueOverflowPolicy#BLOCK}
+	 * @param unique if only one instance per {@link QueuedInstance#getKey()} may be queued
+	 */
+	GroupQueue(String group, int capacity, QueueOverflowPolicy overflowPolicy, long blockTimeout, boolean unique) {
+		this(group, capacity, overflowPolicy, blockTimeout, unique, false);
+	}
+
+	/**
+	 *
+	 * @param group the group name
+	 * @param capacity maximum number of queued entries, {@value #UNBOUNDED} for no limit
+	 * @param overflowPolicy what to do if the queue is full
+	 * @param blockTimeout maximum time in milliseconds to wait with {@link QueueOverflowPolicy#BLOCK}
+	 * @param unique if only one instance per {@link QueuedInstance#getKey()} may be queued
+	 * @param prioritized if the entries are ordered by {@link #PRIORITY_ORDER} instead of first in first out
+	 */
+	GroupQueue(String group, int capacity, QueueOverflowPolicy overflowPolicy, long blockTimeout, boolean unique,
+			boolean prioritized) {
+		this.group = group;
+		this.capacity = capacity;
+		this.overflowPolicy = null != overflowPolicy ? overflowPolicy : QueueOverflowPolicy.REJECT;
+		this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeout);
+		this.unique = unique;
+		this.prioritized = prioritized;
+		this.entries = prioritized ? new PriorityQueue<>(PRIORITY_ORDER) : new ArrayDeque<>();
+	}
+
+	String getGroup() {
+		return group;
+	}
+
+	int getCapacity() {
+		return capacity;
+	}
+
+	boolean isPrioritized() {
+		return prioritized;
+	}
+
+	int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * the number of instances of the group which may run at the same time. Has to be set before the queue is used.
+	 * @param maxConcurrency
+	 */
+	void setMaxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = Math.max(1, maxConcurrency);
+	}
+
+	/**
+	 * used by dispatchers: takes a permit to dispatch and run an instance of the group
+	 * @return false if all {@link #getMaxConcurrency()} permits are taken
+	 */
+	boolean tryAcquire() {
+		int current;
+		do {
+			current = permits.get();
+			if (current >= maxConcurrency) {
+				return false;
+			}
+		} while (!permits.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	/**
+	 * used by dispatchers: returns a permit taken by {@link #tryAcquire()}
+	 */
+	void release() {
+		permits.decrementAndGet();
+	}
+
+	/**
+	 * @return the number of taken permits
+	 */
+	int getAcquired() {
+		return permits.get();
+	}
+
+	/**
+	 * is called (while holding the lock of the queue) with each entry removed by {@link QueueOverflowPolicy#DROP_OLDEST}
+	 * @param dropListener
+	 */
+	void setDropListener(Consumer<Entry> dropListener) {
+		this.dropListener = dropListener;
+	}
+
+	boolean isCoalescing() {
+		return coalescing;
+	}
+
+	/**
+	 * if a new instance is merged into the queued one with same {@link QueuedInstance#getKey()}, even if the queue isn't full.
+	 * Has to be set before the queue is used.
+	 * @param coalescing
+	 */
+	void setCoalescing(boolean coalescing) {
+		this.coalescing = coalescing;
+	}
+
+	/**
+	 * marks the queue as retired if it's empty and no permit is taken, so the service can remove it.
+	 * Afterwards each offer returns {@link Offer#RETIRED}, the caller has to use a new queue for the group.
+	 * @return true if the queue is retired
+	 */
+	boolean retireIfIdle() {
+		lock.lock();
+		try {
+			if (!retired && entries.isEmpty() && permits.get() == 0) {
+				retired = true;
+			}
+			return retired;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean isFull() {
+		return capacity > UNBOUNDED && entries.size() >= capacity;
+	}
+
+	/**
+	 * adds the instance to the queue regarding the capacity and the overflow policy
+	 *
+	 * @param instance
+	 * @return the result of the offer, never null
+	 * @throws InterruptedException if interrupted while waiting for space
+	 */
+	Offer offer(QueuedInstance instance) throws InterruptedException {
+		String key = instance.getKey();
+		lock.lockInterruptibly();
+		try {
+			if (retired) {
+				return Offer.RETIRED;
+			}
+			if (coalescing && index.containsKey(key)) {
+				return coalesce(index.get(key), instance);
+			}
+			if (unique && index.containsKey(key)) {
+				return Offer.REJECTED;
+			}
+			boolean dropped = false;
+			if (isFull()) {
+				switch (overflowPolicy) {
+				case DROP_OLDEST:
+					Entry oldest = pollOldest();
+					unindex(oldest);
+					if (null != dropListener) {
+						dropListener.accept(oldest);
+					}
+					dropped = true;
+					break;
+				case BLOCK:
+					long nanos = blockTimeoutNanos;
+					while (isFull()) {
+						if (nanos <= 0L) {
+							return Offer.REJECTED;
+						}
+						nanos = notFull.awaitNanos(nanos);
+					}
+					if (retired) {
+						return Offer.RETIRED;
+					}
+					// another instance with same key may have been queued while waiting
+					if (coalescing && index.containsKey(key)) {
+						return coalesce(index.get(key), instance);
+					}
+					if (unique && index.containsKey(key)) {
+						return Offer.REJECTED;
+					}
+					break;
+				case COALESCE:
+					Entry pending = index.get(key);
+					if (null == pending) {
+						return Offer.REJECTED;
+					}
+					return coalesce(pending, instance);
+				default:
+					return Offer.REJECTED;
+				}
+			}
+			Entry entry = new Entry(key, instance, sequence++);
+			entries.add(entry);
+			index.put(key, entry);
+			return new Offer(dropped ? Offer.Status.REPLACED_OLDEST : Offer.Status.QUEUED, entry);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * removes the next entry from the queue
+	 * @return the entry or null if the queue is empty
+	 */
+	Entry poll() {
+		lock.lock();
+		try {
+			Entry entry = entries.poll();
+			if (null != entry) {
+				unindex(entry);
+				notFull.signal();
+			}
+			return entry;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * removes the next entry from the queue. If its instance is a {@link BatchQueuedInstance}, the directly following entries
+	 * with instances of the same class are removed as well, up to {@link BatchQueuedInstance#getMaxBatchSize()} entries.
+	 * @return the entries in queue order, empty if the queue is empty
+	 */
+	List<Entry> pollBatch() {
+		lock.lock();
+		try {
+			Entry first = entries.poll();
+			if (null == first) {
+				return Collections.emptyList();
+			}
+			unindex(first);
+			if (!(first.instance instanceof BatchQueuedInstance)) {
+				notFull.signal();
+				return Collections.singletonList(first);
+			}
+			int maxBatchSize = ((BatchQueuedInstance) first.instance).getMaxBatchSize();
+			List<Entry> batch = new ArrayList<>();
+			batch.add(first);
+			Entry next;
+			while (batch.size() < maxBatchSize && null != (next = entries.peek())
+					&& next.instance.getClass() == first.instance.getClass()) {
+				entries.poll();
+				unindex(next);
+				batch.add(next);
+			}
+			notFull.signalAll();
+			return batch;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * removes a queued entry, e.g. if it can't be executed
+	 * @param entry
+	 * @return false if the entry isn't queued anymore
+	 */
+	boolean remove(Entry entry) {
+		lock.lock();
+		try {
+			if (!entries.remove(entry)) {
+				return false;
+			}
+			unindex(entry);
+			notFull.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void unindex(Entry entry) {
+		index.remove(entry.key, entry);
+	}
+
+	private Entry peekOldest() {
+		if (!prioritized) {
+			return entries.peek();
+		}
+		Entry oldest = null;
+		for (Entry entry : entries) {
+			if (null == oldest || entry.sequence < oldest.sequence) {
+				oldest = entry;
+			}
+		}
+		return oldest;
+	}
+
+	private Entry pollOldest() {
+		Entry oldest = peekOldest();
+		if (prioritized) {
+			entries.remove(oldest);
+		} else {
+			entries.poll();
+		}
+		return oldest;
+	}
+
+	/*
+	 * the position of a prioritized entry depends on the instance, so it's moved within the heap
+	 */
+	private Offer coalesce(Entry pending, QueuedInstance instance) {
+		QueuedInstance merged = instance.coalesce(pending.instance);
+		if (null == merged) {
+			merged = instance;
+		}
+		if (prioritized) {
+			entries.remove(pending);
+			pending.instance = merged;
+			pending.updateOrder();
+			entries.add(pending);
+		} else {
+			pending.instance = merged;
+		}
+		return new Offer(Offer.Status.COALESCED, pending);
+	}
+
+	boolean isEmpty() {
+		lock.lock();
+		try {
+			return entries.isEmpty();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	int size() {
+		lock.lock();
+		try {
+			return entries.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * time in milliseconds when the oldest entry has been queued
+	 * @return the time or -1 if the queue is empty
+	 */
+	long getOldestQueuedAt() {
+		lock.lock();
+		try {
+			Entry oldest = peekOldest();
+			return null != oldest ? oldest.getQueuedAt() : -1L;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of different keys of the queued instances
+	 */
+	int getQueuedKeyCount() {
+		lock.lock();
+		try {
+			return index.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the keys of all queued instances
+	 */
+	List<String> getQueuedKeys() {
+		lock.lock();
+		try {
+			return new ArrayList<>(index.keySet());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * removes all entries
+	 * @return the removed entries
+	 */
+	List<Entry> clear() {
+		lock.lock();
+		try {
+			List<Entry> removed = new ArrayList<>(entries);
+			entries.clear();
+			index.clear();
+			notFull.signalAll();
+			return removed;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * a queued instance. The instance may be replaced while queued by coalescing.
+	 */
+	static class Entry {
+
+		private final String key;
+		private final long sequence;
+		private final long queuedAt = System.currentTimeMillis();
+		private final CompletableFuture<JobExecutionResult> result = new CompletableFuture<>();
+		private volatile QueuedInstance instance;
+
+		// copied from the instance, so the order doesn't change while in the heap
+		private int priority;
+		private long deadline;
+
+		Entry(String key, QueuedInstance instance, long sequence) {
+			this.key = key;
+			this.instance = instance;
+			this.sequence = sequence;
+			updateOrder();
+		}
+
+		private void updateOrder() {
+			this.priority = instance.getPriority();
+			this.deadline = instance.getDeadline();
+		}
+
+		String getKey() {
+			return key;
+		}
+
+		QueuedInstance getInstance() {
+			return instance;
+		}
+
+		/**
+		 * time in milliseconds when the entry has been queued
+		 * @return
+		 */
+		long getQueuedAt() {
+			return queuedAt;
+		}
+
+		/**
+		 * completed with the result of the execution
+		 * @return
+		 */
+		CompletableFuture<JobExecutionResult> getResult() {
+			return result;
+		}
+	}
+
+	/**
+	 * result of {@link GroupQueue#offer(QueuedInstance)}
+	 */
+	static class Offer {
+
+		enum Status {
+			/** the instance has been added */
+			QUEUED,
+			/** the instance has been added, the oldest one has been dropped */
+			REPLACED_OLDEST,
+			/** the instance has been merged into a queued instance with same key */
+			COALESCED,
+			/** the instance has not been added */
+			REJECTED,
+			/** the instance has not been added, because the queue has been retired. It has to be offered to a new queue */
+			RETIRED
+		}
+
+		static final Offer REJECTED = new Offer(Status.REJECTED, null);
+		static final Offer RETIRED = new Offer(Status.RETIRED, null);
+
+		private final Status status;
+		private final Entry entry;
+
+		Offer(Status status, Entry entry) {
+			this.status = status;
+			this.entry = entry;
+		}
+
+		Status getStatus() {
+			return status;
+		}
+
+		/**
+		 * the entry holding the instance, null if rejected
+		 * @return
+		 */
+		Entry getEntry() {
+			return entry;
+		}
+
+		boolean isAccepted() {
+			return status != Status.REJECTED && status != Status.RETIRED;
+		}
+
+		boolean isRetired() {
+			return status == Status.RETIRED;
+		}
+
+		/**
+		 * if the number of queued entries has been increased
+		 * @return
+		 */
+		boolean isAdded() {
+			return status == Status.QUEUED;
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package de.chandre.quartz.spring.queue;
 
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
@@ -19,25 +20,50 @@ public class JobCallable implements Callable<JobExecutionResult> {
 
 	private QueuedInstance queuedInstance;
 	private Set<String> offeredInstances;
+	private List<BatchQueuedInstance> batch;
 	
+	/**
+	 * 
+	 * @param queuedInstance
+	 * @since 1.0.6
+	 */
+	public JobCallable(QueuedInstance queuedInstance) {
+		this(queuedInstance, null);
+	}
+	
+	/**
+	 * 
+	 * @param queuedInstance
+	 * @param offeredInstances set of keys of queued instances. The key of the instance will be removed before execution.
+	 */
 	public JobCallable(QueuedInstance queuedInstance, Set<String> offeredInstances) {
 		this.queuedInstance = queuedInstance;
 		this.offeredInstances = offeredInstances;
 	}
 	
+	/**
+	 * 
+	 * @param batch the instances to execute with {@link BatchQueuedInstance#runBatch(List)} of the first one
+	 * @since 1.0.6
+	 */
+	public JobCallable(List<BatchQueuedInstance> batch) {
+		this(batch.get(0), null);
+		this.batch = batch;
+	}
+	
 	public String getName() {
 		return this.queuedInstance.getName();
 	}
 	
 	@Override
 	public JobExecutionResult call() throws Exception {
-		LOG.debug("starting queued quartz instance " + queuedInstance.getName());
+		LOG.debug("starting queued quartz instance " + queuedInstance.getName() + (null != batch ? " with batch of " + batch.size() : ""));
 		try {
-			if (!offeredInstances.remove(queuedInstance.getKey())) {
+			if (null != offeredInstances && !offeredInstances.remove(queuedInstance.getKey())) {
 				LOG.warn("queued quartz instance " + queuedInstance.getName() + " hat not been removed from offered jobs.");
 			}
 			//run the logic.
-			boolean result = queuedInstance.run();
+			boolean result = null != batch ? batch.get(0).runBatch(batch) : queuedInstance.run();
 			if (!result) {
 				LOG.debug("queued quartz instance " + queuedInstance.getName() + " ended with false");
 			}
@@ -0,0 +1,33 @@
+package de.chandre.quartz.spring.queue;
+
+/**
+ * What a {@link QueueService} does if the queue of a group has reached its capacity.
+ *
+ * @author André
+ * @since 1.0.6
+ */
+public enum QueueOverflowPolicy {
+
+	/**
+	 * the new instance is not queued
+	 */
+	REJECT,
+
+	/**
+	 * the oldest queued instance of the group is removed and the new one is queued
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * the caller waits until there is space in the queue, but not longer than the configured timeout.
+	 * Afterwards the instance is rejected.
+	 */
+	BLOCK,
+
+	/**
+	 * if an instance with same {@link QueuedInstance#getKey()} is already queued, the new instance is merged into it
+	 * by {@link QueuedInstance#coalesce(QueuedInstance)} and takes over its position. Otherwise the new instance is rejected.
+	 * To coalesce also if the queue isn't full, see {@link AbstractQueueService#setCoalescing(boolean)}.
+	 */
+	COALESCE;
+}
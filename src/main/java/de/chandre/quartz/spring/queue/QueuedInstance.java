@@ -13,6 +13,8 @@ public interface QueuedInstance {
 	
 	String DEFAULT_GROUP = "default";
 	String KEY_SEPARATOR = ":";
+	int DEFAULT_PRIORITY = 5;
+	long NO_DEADLINE = 0L;
 	
 	/**
 	 * identification name of queue group.
@@ -38,6 +40,39 @@ public interface QueuedInstance {
 		return getGroup() + KEY_SEPARATOR + getName();
 	};
 	
+	/**
+	 * priority within the group, instances with higher priority are executed first if the queue service is prioritized.
+	 * Is read when the instance is queued.
+	 * @return default: {@value #DEFAULT_PRIORITY}
+	 */
+	default int getPriority() {
+		return DEFAULT_PRIORITY;
+	}
+	
+	/**
+	 * time in milliseconds (epoch) the instance should be executed until. If the queue service is prioritized, 
+	 * instances with same priority and earlier deadline are executed first, instances without deadline last.
+	 * Is read when the instance is queued.
+	 * @return default: {@value #NO_DEADLINE} (no deadline)
+	 */
+	default long getDeadline() {
+		return NO_DEADLINE;
+	}
+	
+	/**
+	 * called if the instance is queued while an instance with same {@link #getKey()} is already waiting 
+	 * and the queue service coalesces them (see {@link AbstractQueueService#setCoalescing(boolean)} 
+	 * and {@link QueueOverflowPolicy#COALESCE}). The returned instance is kept at the position of the waiting one, 
+	 * so there is at most one waiting execution per key.<br>
+	 * Override it to merge the work of both instances or to keep the waiting one.
+	 * 
+	 * @param queued the instance already waiting for execution
+	 * @return the instance to execute instead of both, default: this instance replaces the waiting one
+	 */
+	default QueuedInstance coalesce(QueuedInstance queued) {
+		return this;
+	}
+	
 	/**
 	 * implement your code here to be executed
 	 * @return should return true if job ended successfully
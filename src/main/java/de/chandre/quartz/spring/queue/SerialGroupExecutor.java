@@ -0,0 +1,191 @@
+package de.chandre.quartz.spring.queue;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Executes tasks of the same group one after another in the order they have been submitted,
+ * while all groups share the threads of one executor.<br>
+ * A group only occupies a thread while one of its tasks is running. After each task the group is handed back
+ * to the end of the executor's queue, so a group with many tasks doesn't starve the other groups.<br>
+ * Groups may be allowed to run more than one task at the same time, their tasks are started in submission order then.<br>
+ * The worker of a group is removed when it has no more tasks, so the number of held groups is bound by the groups
+ * having queued or running tasks.
+ *
+ * @author André
+ * @since 1.0.6
+ */
+public class SerialGroupExecutor {
+
+	private static final Log LOG = LogFactory.getLog(SerialGroupExecutor.class);
+
+	private final Executor executor;
+
+	private final ToIntFunction<String> maxConcurrency;
+
+	private final Map<String, GroupWorker> groupWorkers = new ConcurrentHashMap<>();
+
+	/**
+	 *
+	 * @param executor the executor to run the tasks of all groups
+	 */
+	public SerialGroupExecutor(Executor executor) {
+		this(executor, group -> 1);
+	}
+
+	/**
+	 *
+	 * @param executor the executor to run the tasks of all groups
+	 * @param maxConcurrency the number of tasks a group may run at the same time, called once per group
+	 */
+	public SerialGroupExecutor(Executor executor, ToIntFunction<String> maxConcurrency) {
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * the executor running the tasks of all groups
+	 * @return
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * adds the task to the end of the group's queue
+	 *
+	 * @param group the group to serialize on
+	 * @param task
+	 * @throws RejectedExecutionException if the executor rejects the group, the task is not queued then
+	 */
+	public void execute(String group, Runnable task) {
+		// the task is added while holding the map entry, so an idle worker can't be removed in between
+		GroupWorker worker = groupWorkers.compute(group, (key, current) -> {
+			GroupWorker groupWorker = null != current ? current : new GroupWorker(key);
+			groupWorker.tasks.add(task);
+			return groupWorker;
+		});
+		try {
+			worker.activate();
+		} catch (RejectedExecutionException e) {
+			worker.tasks.remove(task);
+			worker.removeIfIdle();
+			throw e;
+		}
+	}
+
+	/**
+	 * adds the callable to the end of the group's queue
+	 *
+	 * @param group the group to serialize on
+	 * @param callable
+	 * @return the future of the callable
+	 */
+	public <T> Future<T> submit(String group, Callable<T> callable) {
+		FutureTask<T> task = new FutureTask<>(callable);
+		execute(group, task);
+		return task;
+	}
+
+	/**
+	 * returns all groups having queued or running tasks
+	 * @return
+	 */
+	public Collection<String> getGroups() {
+		return groupWorkers.keySet();
+	}
+
+	/**
+	 * removes all tasks which are not started yet. Futures returned by {@link #submit(String, Callable)} are cancelled.
+	 */
+	public void clear() {
+		groupWorkers.values().forEach(worker -> {
+			Runnable task;
+			while (null != (task = worker.tasks.poll())) {
+				if (task instanceof Future) {
+					((Future<?>) task).cancel(false);
+				}
+			}
+		});
+		groupWorkers.clear();
+	}
+
+	/**
+	 * the tasks of one group. <code>active</code> counts how often the worker is submitted
+	 * to the executor or running one of its tasks, at most <code>permits</code> times.
+	 */
+	private class GroupWorker implements Runnable {
+
+		private final String group;
+		private final int permits;
+		private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger active = new AtomicInteger(0);
+
+		GroupWorker(String group) {
+			this.group = group;
+			this.permits = Math.max(1, maxConcurrency.applyAsInt(group));
+		}
+
+		private void activate() {
+			int current;
+			do {
+				current = active.get();
+				if (current >= permits) {
+					return;
+				}
+			} while (!active.compareAndSet(current, current + 1));
+			try {
+				executor.execute(this);
+			} catch (RejectedExecutionException e) {
+				active.decrementAndGet();
+				throw e;
+			}
+		}
+
+		/*
+		 * tasks are only added while holding the map entry, so nothing can be added to a removed worker
+		 */
+		private void removeIfIdle() {
+			groupWorkers.computeIfPresent(group, (key, current) -> 
+				current == this && active.get() == 0 && tasks.isEmpty() ? null : current);
+		}
+
+		@Override
+		public void run() {
+			Runnable task = tasks.poll();
+			try {
+				if (null != task) {
+					task.run();
+				}
+			} catch (RuntimeException e) {
+				LOG.error("task of group " + group + " throwed an exception");
+				LOG.error(e.getMessage(), e);
+			} finally {
+				active.decrementAndGet();
+				// a task may have been added after the last poll, but before the permit was returned
+				if (!tasks.isEmpty()) {
+					try {
+						activate();
+					} catch (RejectedExecutionException e) {
+						LOG.warn("executor rejected further tasks of group " + group);
+					}
+				} else {
+					removeIfIdle();
+				}
+			}
+		}
+	}
+}
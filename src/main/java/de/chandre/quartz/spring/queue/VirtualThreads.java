@@ -0,0 +1,79 @@
+package de.chandre.quartz.spring.queue;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Access to virtual threads (JDK 21+) by reflection, so the library still runs on Java 8.
+ *
+ * @author André
+ * @since 1.0.6
+ */
+public final class VirtualThreads {
+
+	private static final Log LOG = LogFactory.getLog(VirtualThreads.class);
+
+	private static final Method OF_VIRTUAL;
+	private static final Method BUILDER_NAME;
+	private static final Method BUILDER_FACTORY;
+	private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+	static {
+		Method ofVirtual = null;
+		Method builderName = null;
+		Method builderFactory = null;
+		Method newThreadPerTaskExecutor = null;
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			builderName = builderClass.getMethod("name", String.class, long.class);
+			builderFactory = builderClass.getMethod("factory");
+			newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			// preview versions of JDK 19/20 are throwing an exception here
+			ofVirtual.invoke(null);
+		} catch (Exception | LinkageError e) {
+			LOG.debug("virtual threads are not available: " + e.getMessage());
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		BUILDER_NAME = builderName;
+		BUILDER_FACTORY = builderFactory;
+		NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+	}
+
+	private VirtualThreads() {}
+
+	/**
+	 * if the running JVM supports virtual threads
+	 * @return
+	 */
+	public static boolean isAvailable() {
+		return null != OF_VIRTUAL;
+	}
+
+	/**
+	 * creates an executor starting a new virtual thread for each task
+	 *
+	 * @param namePrefix prefix of the thread names, followed by a counter
+	 * @return the executor or null if virtual threads are not available
+	 */
+	public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+		if (!isAvailable()) {
+			return null;
+		}
+		try {
+			Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 1L);
+			ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+			return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+		} catch (ReflectiveOperationException e) {
+			LOG.warn("unable to create virtual thread executor: " + e.getMessage());
+			LOG.debug(e.getMessage(), e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package de.chandre.quartz.context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.quartz.JobDetail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.quartz.CronTriggerFactoryBean;
+import org.springframework.scheduling.quartz.JobDetailFactoryBean;
+import org.springframework.scheduling.quartz.SimpleTriggerFactoryBean;
+
+import de.chandre.quartz.jobs.SimpleCronJob;
+import de.chandre.quartz.jobs.SimpleJob;
+import de.chandre.quartz.spring.QuartzUtils;
+
+/**
+ * lazy trigger and job detail factory beans, records if they have been created before the context is started
+ * @author André
+ * @since 1.0.6
+ *
+ */
+@Configuration
+public class TestContextConfiguration12 {
+	
+	public static final String[] LAZY_BEAN_NAMES = {"lazyJobDetail", "lazyTrigger", "lazyCronJobDetail", "lazyCronTrigger"};
+	
+	@Lazy
+	@Bean(name="lazyJobDetail")
+	public JobDetailFactoryBean lazyJobDetail() {
+		return QuartzUtils.createJobDetail(SimpleJob.class, "LazyJobName", "LazyJobGroup", "Lazy Job", null);
+	}
+	
+	@Lazy
+	@Bean(name="lazyTrigger")
+	public SimpleTriggerFactoryBean lazyTrigger(@Qualifier("lazyJobDetail") JobDetail jobDetail) {
+		return QuartzUtils.createSimpleTrigger(jobDetail, "LazyTrigger", "LazyGroup", null, 5000L, 60000L, null);
+	}
+	
+	@Lazy
+	@Bean(name="lazyCronJobDetail")
+	public JobDetailFactoryBean lazyCronJobDetail() {
+		return QuartzUtils.createJobDetail(SimpleCronJob.class, "LazyCronJobName", "LazyJobGroup", "Lazy Cron Job", null);
+	}
+	
+	@Lazy
+	@Bean(name="lazyCronTrigger")
+	public CronTriggerFactoryBean lazyCronTrigger(@Qualifier("lazyCronJobDetail") JobDetail jobDetail) {
+		return QuartzUtils.createCronTrigger(jobDetail, "LazyCronTrigger", "LazyGroup", null, "0 0 0/1 1/1 * ? *", 5000L, null);
+	}
+	
+	@Bean
+	public CreatedBeforeStart createdBeforeStart() {
+		return new CreatedBeforeStart();
+	}
+	
+	/**
+	 * started before the trigger registrar
+	 */
+	public static class CreatedBeforeStart implements SmartLifecycle {
+		
+		private final Map<String, Boolean> created = new ConcurrentHashMap<>();
+		private volatile boolean running = false;
+		
+		@Autowired
+		private ConfigurableListableBeanFactory beanFactory;
+		
+		public Map<String, Boolean> getCreated() {
+			return created;
+		}
+		
+		@Override
+		public void start() {
+			for (String beanName : LAZY_BEAN_NAMES) {
+				created.put(beanName, beanFactory.containsSingleton(beanName));
+			}
+			running = true;
+		}
+		
+		@Override
+		public void stop() {
+			running = false;
+		}
+		
+		@Override
+		public boolean isRunning() {
+			return running;
+		}
+		
+		@Override
+		public int getPhase() {
+			return 0;
+		}
+		
+		@Override
+		public boolean isAutoStartup() {
+			return true;
+		}
+		
+		@Override
+		public void stop(Runnable callback) {
+			stop();
+			callback.run();
+		}
+	}
+}
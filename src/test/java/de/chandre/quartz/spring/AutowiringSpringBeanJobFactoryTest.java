@@ -0,0 +1,232 @@
+package de.chandre.quartz.spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
+
+/**
+ * Tests for {@link AutowiringSpringBeanJobFactory}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class AutowiringSpringBeanJobFactoryTest {
+
+	private AnnotationConfigApplicationContext context;
+	private AutowiringSpringBeanJobFactory jobFactory;
+
+	@Configuration
+	public static class Config {
+
+		@Bean
+		public SingletonService singletonService() {
+			return new SingletonService();
+		}
+
+		@Bean
+		@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+		public PrototypeService prototypeService() {
+			return new PrototypeService();
+		}
+	}
+
+	public static class SingletonService {}
+
+	public static class PrototypeService {}
+
+	public static class FieldJob implements Job {
+
+		@Autowired
+		private SingletonService singletonService;
+
+		@Autowired
+		private PrototypeService prototypeService;
+
+		@Autowired
+		private List<SingletonService> services;
+
+		@Autowired(required = false)
+		private Runnable missing;
+
+		@Override
+		public void execute(JobExecutionContext context) throws JobExecutionException {}
+	}
+
+	public static class ValueJob extends FieldJob {
+
+		@Value("${job.value:default}")
+		private String value;
+	}
+
+	public static class PooledJob implements PoolableJob {
+
+		@Autowired
+		private SingletonService singletonService;
+
+		private boolean reusable = true;
+
+		private String name;
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void execute(JobExecutionContext context) throws JobExecutionException {}
+
+		@Override
+		public boolean reset() {
+			name = null;
+			return reusable;
+		}
+	}
+
+	@Before
+	public void setUp() {
+		context = new AnnotationConfigApplicationContext(Config.class);
+		jobFactory = new AutowiringSpringBeanJobFactory();
+		jobFactory.setApplicationContext(context);
+		jobFactory.setCacheInjectionMetadata(true);
+		jobFactory.setCacheSingletonDependencies(true);
+	}
+
+	@After
+	public void tearDown() {
+		context.close();
+	}
+
+	private TriggerFiredBundle createBundle(Class<? extends Job> jobClass) {
+		return new TriggerFiredBundle(JobBuilder.newJob(jobClass).build(),
+				(OperableTrigger) TriggerBuilder.newTrigger().startNow().build(), null, false, new Date(), new Date(), null, null);
+	}
+
+	private TriggerFiredBundle createBundle(Class<? extends Job> jobClass, String name) {
+		return new TriggerFiredBundle(JobBuilder.newJob(jobClass).usingJobData("name", name).build(),
+				(OperableTrigger) TriggerBuilder.newTrigger().startNow().build(), null, false, new Date(), new Date(), null, null);
+	}
+
+	private Object createJob(Class<? extends Job> jobClass) throws Exception {
+		return jobFactory.createJobInstance(createBundle(jobClass));
+	}
+
+	private void executed(Job job) {
+		executed(job, null);
+	}
+
+	private void executed(Job job, JobExecutionException jobException) {
+		jobFactory.getJobPoolListener().jobWasExecuted(new JobExecutionContextImpl(null, createBundle(job.getClass()), job),
+				jobException);
+	}
+
+	@Test
+	public void cachedInjection_test() throws Exception {
+		FieldJob first = (FieldJob) createJob(FieldJob.class);
+		FieldJob second = (FieldJob) createJob(FieldJob.class);
+
+		assertThat(first.singletonService).isSameAs(context.getBean(SingletonService.class));
+		assertThat(second.singletonService).isSameAs(first.singletonService);
+		assertThat(first.prototypeService).isNotNull();
+		assertThat(second.prototypeService).isNotSameAs(first.prototypeService);
+		assertThat(first.services).containsExactly(first.singletonService);
+		assertThat(second.services).isNotSameAs(first.services);
+		assertThat(first.missing).isNull();
+	}
+
+	@Test
+	public void unsupportedInjectionFallsBack_test() throws Exception {
+		ValueJob job = (ValueJob) createJob(ValueJob.class);
+
+		assertThat(job.value).isEqualTo("default");
+		assertThat(((FieldJob) job).singletonService).isSameAs(context.getBean(SingletonService.class));
+	}
+
+	@Test
+	public void pooledJobIsReused_test() throws Exception {
+		jobFactory.setPoolJobInstances(true);
+
+		PooledJob first = (PooledJob) createJob(PooledJob.class);
+		PooledJob second = (PooledJob) createJob(PooledJob.class);
+		assertThat(second).isNotSameAs(first);
+		assertThat(first.singletonService).isSameAs(context.getBean(SingletonService.class));
+
+		executed(first);
+		assertThat(createJob(PooledJob.class)).isSameAs(first);
+
+		// not reusable instances are discarded
+		second.reusable = false;
+		executed(second);
+		assertThat(createJob(PooledJob.class)).isNotSameAs(second);
+	}
+
+	@Test
+	public void pooledJobIsPopulated_test() throws Exception {
+		jobFactory.setPoolJobInstances(true);
+
+		PooledJob first = (PooledJob) jobFactory.createJobInstance(createBundle(PooledJob.class, "first"));
+		assertThat(first.name).isEqualTo("first");
+		executed(first);
+
+		PooledJob second = (PooledJob) jobFactory.createJobInstance(createBundle(PooledJob.class, "second"));
+		assertThat(second).isSameAs(first);
+		assertThat(second.name).isEqualTo("second");
+	}
+
+	@Test
+	public void refiredJobIsNotReleased_test() throws Exception {
+		jobFactory.setPoolJobInstances(true);
+
+		PooledJob job = (PooledJob) createJob(PooledJob.class);
+		// the job shell executes the same instance again, so it must not be handed out meanwhile
+		JobExecutionException refire = new JobExecutionException("refire");
+		refire.setRefireImmediately(true);
+		executed(job, refire);
+		assertThat(createJob(PooledJob.class)).isNotSameAs(job);
+
+		// released after the last execution, even if it failed
+		executed(job, new JobExecutionException("failed"));
+		assertThat(createJob(PooledJob.class)).isSameAs(job);
+	}
+
+	@Test
+	public void poolIsBounded_test() throws Exception {
+		jobFactory.setPoolJobInstances(true);
+		jobFactory.setMaxPooledInstances(1);
+
+		PooledJob first = (PooledJob) createJob(PooledJob.class);
+		PooledJob second = (PooledJob) createJob(PooledJob.class);
+		executed(first);
+		executed(second);
+
+		assertThat(createJob(PooledJob.class)).isSameAs(first);
+		assertThat(createJob(PooledJob.class)).isNotSameAs(second);
+	}
+
+	@Test
+	public void noPoolingWithoutInterface_test() throws Exception {
+		jobFactory.setPoolJobInstances(true);
+
+		FieldJob first = (FieldJob) createJob(FieldJob.class);
+		executed(first);
+		assertThat(createJob(FieldJob.class)).isNotSameAs(first);
+	}
+}
@@ -0,0 +1,233 @@
+package de.chandre.quartz.spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.scheduling.quartz.JobDetailFactoryBean;
+import org.springframework.scheduling.quartz.SimpleTriggerFactoryBean;
+
+/**
+ * Tests for {@link QuartzTriggerRegistrar}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class QuartzTriggerRegistrarTest {
+
+	private Scheduler scheduler;
+	private QuartzTriggerRegistrar registrar;
+	private StaticApplicationContext context;
+
+	public static class NoopJob implements Job {
+		@Override
+		public void execute(JobExecutionContext context) {}
+	}
+
+	/**
+	 * the stored job and trigger, and a durable job without trigger, as lazy factory beans 
+	 * (no configuration class, the test application would scan it)
+	 */
+	public static class LazyConfiguration {
+
+		@Lazy
+		@Bean
+		public JobDetailFactoryBean storedJob() {
+			return QuartzUtils.createJobDetail(NoopJob.class, "stored", "group", null, null);
+		}
+
+		@Lazy
+		@Bean
+		public SimpleTriggerFactoryBean storedTrigger(@Qualifier("storedJob") JobDetail jobDetail) {
+			return QuartzUtils.createSimpleTrigger(jobDetail, "storedTrigger", "group", "old", 0L, 60000L, null);
+		}
+
+		@Lazy
+		@Bean
+		public JobDetailFactoryBean durableJob() {
+			return QuartzUtils.createJobDetail(NoopJob.class, "durable", "group", null, null);
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		Properties properties = new Properties();
+		properties.put(StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "RegistrarTestScheduler");
+		properties.put("org.quartz.threadPool.threadCount", "1");
+		scheduler = new StdSchedulerFactory(properties).getScheduler();
+		registrar = new QuartzTriggerRegistrar(scheduler);
+		registrar.setBulkRegistration(true);
+		registrar.setBatchSize(2);
+		context = new StaticApplicationContext();
+		registrar.setApplicationContext(context);
+
+		// already stored by a previous start
+		JobDetail stored = job("stored");
+		Trigger storedTrigger = trigger("storedTrigger", stored, "old");
+		QuartzTriggerRegistrar.getJobDetail(storedTrigger);
+		scheduler.scheduleJob(stored, storedTrigger);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		context.close();
+		scheduler.shutdown();
+	}
+
+	private static JobDetail job(String name) {
+		return JobBuilder.newJob(NoopJob.class).withIdentity(name, "group").storeDurably().build();
+	}
+
+	private static Trigger trigger(String name, JobDetail jobDetail, String description) {
+		Trigger trigger = TriggerBuilder.newTrigger().withIdentity(name, "group").forJob(jobDetail)
+				.withDescription(description)
+				.withSchedule(SimpleScheduleBuilder.repeatMinutelyForever()).build();
+		// like Spring's trigger factory beans
+		trigger.getJobDataMap().put(QuartzTriggerRegistrar.JOB_DETAIL_KEY, jobDetail);
+		return trigger;
+	}
+
+	private void register(Trigger... triggers) {
+		for (Trigger trigger : triggers) {
+			context.getBeanFactory().registerSingleton(trigger.getKey().getName(), trigger);
+		}
+		context.refresh();
+		registrar.registerTriggers();
+	}
+
+	@Test
+	public void bulkRegistration_test() throws Exception {
+		JobDetail stored = job("stored");
+		JobDetail newJob = job("new");
+		register(trigger("storedTrigger", stored, "new"),
+				trigger("storedTrigger2", stored, "new"),
+				trigger("newTrigger", newJob, "new"),
+				trigger("newTrigger2", newJob, "new"),
+				trigger("newTrigger3", newJob, "new"));
+
+		assertThat(scheduler.getTriggerKeys(GroupMatcher.anyTriggerGroup())).hasSize(5);
+		assertThat(scheduler.getTriggersOfJob(newJob.getKey())).hasSize(3);
+		assertThat(scheduler.getTriggersOfJob(stored.getKey())).hasSize(2);
+		// not overwritten
+		assertThat(scheduler.getTrigger(new TriggerKey("storedTrigger", "group")).getDescription()).isEqualTo("old");
+		assertThat(scheduler.getTrigger(new TriggerKey("newTrigger", "group")).getJobDataMap())
+				.doesNotContainKey(QuartzTriggerRegistrar.JOB_DETAIL_KEY);
+	}
+
+	@Test
+	public void bulkRegistrationOverwrite_test() throws Exception {
+		registrar.setOverwriteExistingJobs(true);
+		JobDetail stored = job("stored");
+		// the third one in the next batch with the same job
+		register(trigger("storedTrigger", stored, "new"),
+				trigger("storedTrigger2", stored, "new"),
+				trigger("storedTrigger3", stored, "new"));
+
+		assertThat(scheduler.getTriggersOfJob(stored.getKey())).hasSize(3);
+		assertThat(scheduler.getTrigger(new TriggerKey("storedTrigger", "group")).getDescription()).isEqualTo("new");
+	}
+
+	@Test
+	public void bulkRegistrationOverwriteUnchanged_test() throws Exception {
+		registrar.setOverwriteExistingJobs(true);
+		Date storedStart = scheduler.getTrigger(new TriggerKey("storedTrigger", "group")).getStartTime();
+		Thread.sleep(10L);
+
+		JobDetail stored = job("stored");
+		register(trigger("storedTrigger", stored, "old"), trigger("newTrigger", stored, "new"));
+
+		// unchanged, so not rewritten
+		assertThat(scheduler.getTrigger(new TriggerKey("storedTrigger", "group")).getStartTime()).isEqualTo(storedStart);
+		assertThat(scheduler.getTriggersOfJob(stored.getKey())).hasSize(2);
+	}
+
+	@Test
+	public void reconcile_test() throws Exception {
+		registrar.setReconcile(true);
+		registrar.setDeleteOrphans(true);
+		JobDetail orphan = job("orphan");
+		scheduler.scheduleJob(orphan, TriggerBuilder.newTrigger().withIdentity("orphanTrigger", "group").build());
+		Date storedStart = scheduler.getTrigger(new TriggerKey("storedTrigger", "group")).getStartTime();
+		Thread.sleep(10L);
+
+		JobDetail stored = job("stored");
+		Trigger unchanged = trigger("storedTrigger", stored, "old");
+		assertThat(unchanged.getStartTime()).isAfter(storedStart);
+		register(unchanged, trigger("newTrigger", stored, "new"));
+
+		// not rewritten, the start time isn't part of the definition
+		assertThat(scheduler.getTrigger(new TriggerKey("storedTrigger", "group")).getStartTime()).isEqualTo(storedStart);
+		assertThat(scheduler.getTriggersOfJob(stored.getKey())).hasSize(2);
+		assertThat(scheduler.checkExists(new TriggerKey("orphanTrigger", "group"))).isFalse();
+		assertThat(scheduler.checkExists(orphan.getKey())).isFalse();
+	}
+
+	@Test
+	public void deleteOrphansWithoutReconcile_test() throws Exception {
+		registrar.setDeleteOrphans(true);
+		JobDetail orphan = job("orphan");
+		scheduler.scheduleJob(orphan, TriggerBuilder.newTrigger().withIdentity("orphanTrigger", "group").build());
+
+		JobDetail stored = job("stored");
+		register(trigger("storedTrigger", stored, "new"), trigger("newTrigger", stored, "new"));
+
+		assertThat(scheduler.getTriggersOfJob(stored.getKey())).hasSize(2);
+		assertThat(scheduler.checkExists(new TriggerKey("orphanTrigger", "group"))).isFalse();
+		assertThat(scheduler.checkExists(orphan.getKey())).isFalse();
+	}
+
+	@Test
+	public void deleteOrphansKeepsLazyBeans_test() throws Exception {
+		registrar.setDeleteOrphans(true);
+		scheduler.addJob(job("durable"), false);
+		JobDetail orphan = job("orphan");
+		scheduler.scheduleJob(orphan, TriggerBuilder.newTrigger().withIdentity("orphanTrigger", "group").build());
+
+		try (AnnotationConfigApplicationContext lazyContext = new AnnotationConfigApplicationContext(LazyConfiguration.class)) {
+			registrar.setApplicationContext(lazyContext);
+			registrar.registerTriggers();
+		}
+
+		assertThat(scheduler.checkExists(new TriggerKey("storedTrigger", "group"))).isTrue();
+		assertThat(scheduler.checkExists(job("stored").getKey())).isTrue();
+		assertThat(scheduler.checkExists(job("durable").getKey())).isTrue();
+		assertThat(scheduler.checkExists(new TriggerKey("orphanTrigger", "group"))).isFalse();
+		assertThat(scheduler.checkExists(orphan.getKey())).isFalse();
+	}
+
+	@Test
+	public void fingerprint_test() throws Exception {
+		JobDetail stored = job("stored");
+		Trigger trigger = trigger("storedTrigger", stored, "old");
+		QuartzTriggerRegistrar.getJobDetail(trigger);
+		assertThat(QuartzUtils.getFingerprint(trigger))
+				.isEqualTo(QuartzUtils.getFingerprint(scheduler.getTrigger(trigger.getKey())));
+		assertThat(QuartzUtils.getFingerprint(stored)).isEqualTo(QuartzUtils.getFingerprint(scheduler.getJobDetail(stored.getKey())));
+
+		Trigger changed = trigger("storedTrigger", stored, "old");
+		QuartzTriggerRegistrar.getJobDetail(changed);
+		assertThat(QuartzUtils.getFingerprint(changed)).isEqualTo(QuartzUtils.getFingerprint(trigger));
+		changed.getJobDataMap().put("myKey", "myValue");
+		assertThat(QuartzUtils.getFingerprint(changed)).isNotEqualTo(QuartzUtils.getFingerprint(trigger));
+	}
+}
@@ -0,0 +1,94 @@
+package de.chandre.quartz.spring.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+
+import de.chandre.quartz.jobs.SimpleJob;
+import de.chandre.quartz.spring.QuartzSchedulerProperties.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for {@link MicrometerJobMetricsListener}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class MicrometerJobMetricsListenerTest {
+
+	private static final JobKey JOB_KEY = JobKey.jobKey("myJob", "jobGroup");
+
+	private SimpleMeterRegistry registry;
+	private MicrometerJobMetricsListener listener;
+
+	@Before
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		Metrics metrics = new Metrics();
+		metrics.setEnabled(true);
+		listener = new MicrometerJobMetricsListener(registry, metrics, null);
+	}
+
+	private static JobExecutionContext context(long scheduledOffset, long runTime) {
+		Date fireTime = new Date();
+		TriggerFiredBundle bundle = new TriggerFiredBundle(JobBuilder.newJob(SimpleJob.class).withIdentity(JOB_KEY).build(),
+				(OperableTrigger) TriggerBuilder.newTrigger().forJob(JOB_KEY).startNow().build(), null, false,
+				fireTime, new Date(fireTime.getTime() - scheduledOffset), null, null);
+		JobExecutionContextImpl context = new JobExecutionContextImpl(null, bundle, null);
+		context.setJobRunTime(runTime);
+		return context;
+	}
+
+	@Test
+	public void lagAndDuration_test() {
+		listener.jobToBeExecuted(context(150L, -1L));
+		listener.jobWasExecuted(context(150L, 30L), null);
+		listener.jobWasExecuted(context(150L, 50L), new JobExecutionException("failed"));
+
+		Timer lag = registry.get(MicrometerJobMetricsListener.METRIC_JOB_LAG)
+				.tag(MicrometerTriggerMetricsListener.TAG_JOB_GROUP, "jobGroup")
+				.tag(MicrometerTriggerMetricsListener.TAG_JOB_NAME, "myJob").timer();
+		assertThat(lag.count()).isEqualTo(1L);
+		assertThat(lag.max(TimeUnit.MILLISECONDS)).isEqualTo(150.0);
+
+		assertThat(registry.get(MicrometerJobMetricsListener.METRIC_JOB_DURATION)
+				.tag(MicrometerJobMetricsListener.TAG_RESULT, MicrometerJobMetricsListener.RESULT_SUCCESS).timer()
+				.max(TimeUnit.MILLISECONDS)).isEqualTo(30.0);
+		assertThat(registry.get(MicrometerJobMetricsListener.METRIC_JOB_DURATION)
+				.tag(MicrometerJobMetricsListener.TAG_RESULT, MicrometerJobMetricsListener.RESULT_FAILURE).timer()
+				.max(TimeUnit.MILLISECONDS)).isEqualTo(50.0);
+	}
+
+	@Test
+	public void vetoed_test() {
+		listener.jobExecutionVetoed(context(0L, -1L));
+		listener.jobExecutionVetoed(context(0L, -1L));
+
+		assertThat(registry.get(MicrometerJobMetricsListener.METRIC_JOB_VETOED).counter().count()).isEqualTo(2.0);
+	}
+
+	@Test
+	public void metersAreEvicted_test() {
+		listener.jobToBeExecuted(context(0L, -1L));
+		listener.jobWasExecuted(context(0L, 30L), null);
+		assertThat(listener.getCachedJobCount()).isEqualTo(1);
+		assertThat(registry.getMeters()).hasSize(2);
+
+		listener.getSchedulerListener().jobDeleted(JOB_KEY);
+		assertThat(listener.getCachedJobCount()).isEqualTo(0);
+		assertThat(registry.getMeters()).isEmpty();
+	}
+}
@@ -0,0 +1,108 @@
+package de.chandre.quartz.spring.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+
+import de.chandre.quartz.jobs.SimpleJob;
+import de.chandre.quartz.spring.QuartzSchedulerProperties.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for {@link MicrometerTriggerMetricsListener}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class MicrometerTriggerMetricsListenerTest {
+
+	private SimpleMeterRegistry registry;
+	private Metrics metrics;
+	private MicrometerTriggerMetricsListener listener;
+
+	@Before
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		metrics = new Metrics();
+		metrics.setEnabled(true);
+		metrics.setEnableExecutionInstructionCounter(true);
+		listener = new MicrometerTriggerMetricsListener(registry, metrics, null);
+	}
+
+	private static Trigger trigger(String name) {
+		OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger().withIdentity(name, "triggerGroup").forJob("myJob", "jobGroup")
+				.withSchedule(SimpleScheduleBuilder.repeatSecondlyForever()).startNow().build();
+		// like a scheduled trigger, otherwise it counts as completed
+		trigger.computeFirstFireTime(null);
+		return trigger;
+	}
+
+	private static JobExecutionContext context(Trigger trigger, long runTime) {
+		TriggerFiredBundle bundle = new TriggerFiredBundle(JobBuilder.newJob(SimpleJob.class).withIdentity(trigger.getJobKey()).build(),
+				(OperableTrigger) trigger, null, false, new Date(), new Date(), null, null);
+		JobExecutionContextImpl context = new JobExecutionContextImpl(null, bundle, null);
+		context.setJobRunTime(runTime);
+		return context;
+	}
+
+	@Test
+	public void taggedMeters_test() {
+		Trigger trigger = trigger("myTrigger");
+		listener.triggerFired(trigger, context(trigger, -1L));
+		listener.triggerComplete(trigger, context(trigger, 20L), CompletedExecutionInstruction.NOOP);
+		listener.triggerFired(trigger, context(trigger, -1L));
+		listener.triggerComplete(trigger, context(trigger, 40L), CompletedExecutionInstruction.NOOP);
+		listener.triggerMisfired(trigger);
+
+		assertThat(registry.get(MicrometerTriggerMetricsListener.METRIC_TRIGGER_FIRED)
+				.tag(MicrometerTriggerMetricsListener.TAG_JOB_GROUP, "jobGroup")
+				.tag(MicrometerTriggerMetricsListener.TAG_JOB_NAME, "myJob")
+				.tag(MicrometerTriggerMetricsListener.TAG_TRIGGER_GROUP, "triggerGroup")
+				.tag(MicrometerTriggerMetricsListener.TAG_TRIGGER_NAME, "myTrigger")
+				.counter().count()).isEqualTo(2.0);
+		assertThat(registry.get(MicrometerTriggerMetricsListener.METRIC_TRIGGER_COMPLETED)
+				.tag(MicrometerTriggerMetricsListener.TAG_INSTRUCTION, "NOOP")
+				.counter().count()).isEqualTo(2.0);
+		assertThat(registry.get(MicrometerTriggerMetricsListener.METRIC_TRIGGER_MISFIRED)
+				.counter().count()).isEqualTo(1.0);
+		// run times are timed by the job listener only
+		assertThat(registry.find("quartz.job.execution").meter()).isNull();
+	}
+
+	@Test
+	public void countersDisabled_test() {
+		metrics.setEnableTriggerCounter(false);
+		metrics.setEnableJobGauges(false);
+		metrics.setEnableTriggerGauges(false);
+		Trigger trigger = trigger("myTrigger");
+		listener.triggerFired(trigger, context(trigger, -1L));
+		listener.triggerComplete(trigger, context(trigger, 20L), CompletedExecutionInstruction.NOOP);
+
+		assertThat(registry.getMeters()).isEmpty();
+	}
+
+	@Test
+	public void metersAreEvicted_test() {
+		Trigger trigger = trigger("myTrigger");
+		listener.triggerFired(trigger, context(trigger, -1L));
+		listener.triggerComplete(trigger, context(trigger, 20L), CompletedExecutionInstruction.NOOP);
+		assertThat(listener.getCachedTriggerCount()).isEqualTo(1);
+		assertThat(registry.getMeters()).hasSize(2);
+
+		listener.getSchedulerListener().jobUnscheduled(trigger.getKey());
+		assertThat(listener.getCachedTriggerCount()).isEqualTo(0);
+		assertThat(registry.getMeters()).isEmpty();
+	}
+}
@@ -0,0 +1,204 @@
+package de.chandre.quartz.spring.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerBuilder;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.buffer.BufferCounterService;
+import org.springframework.boot.actuate.metrics.buffer.CounterBuffers;
+import org.springframework.boot.actuate.metrics.writer.CounterWriter;
+import org.springframework.boot.actuate.metrics.writer.Delta;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.chandre.quartz.spring.QuartzSchedulerProperties.Metrics;
+
+/**
+ * Tests for {@link TriggerMetricsListener}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class TriggerMetricsListenerTest {
+
+	private List<String> counted = new ArrayList<>();
+
+	private Metrics metrics;
+
+	private TriggerMetricsListener listener;
+
+	@Before
+	public void setUp() {
+		metrics = new Metrics();
+		metrics.setEnabled(true);
+		metrics.setEnableJobGroupCounter(true);
+		metrics.setEnableExecutionInstructionCounter(true);
+		listener = new TriggerMetricsListener(metrics, null);
+		ReflectionTestUtils.setField(listener, "counterService", new CounterService() {
+			@Override
+			public void increment(String metricName) {
+				counted.add(metricName);
+			}
+			@Override
+			public void decrement(String metricName) {}
+			@Override
+			public void reset(String metricName) {}
+		});
+	}
+
+	private static Trigger trigger(String name) {
+		return TriggerBuilder.newTrigger().withIdentity(name, "triggerGroup").forJob("myJob", "jobGroup")
+				.withSchedule(SimpleScheduleBuilder.repeatSecondlyForever()).startNow().build();
+	}
+
+	@Test
+	public void metricNames_test() {
+		Trigger trigger = trigger("myTrigger");
+		listener.triggerFired(trigger, null);
+		listener.triggerComplete(trigger, null, CompletedExecutionInstruction.NOOP);
+
+		assertThat(counted).containsExactly(
+				"quartz.job.jobGroup.fired",
+				"quartz.job.jobGroup.myJob.fired",
+				"quartz.trigger.triggerGroup.myTrigger.fired",
+				"quartz.job.jobGroup.completed",
+				"quartz.job.jobGroup.myJob.completed",
+				"quartz.trigger.triggerGroup.myTrigger.completed",
+				"quartz.trigger.triggerGroup.myTrigger.completed.NOOP",
+				"quartz.job.jobGroup.myJob.completed.NOOP");
+	}
+
+	@Test
+	public void metricNamesAreCached_test() {
+		Trigger trigger = trigger("myTrigger");
+		listener.triggerFired(trigger, null);
+		listener.triggerFired(trigger, null);
+
+		assertThat(counted).hasSize(6);
+		assertThat(counted.get(3)).isSameAs(counted.get(0));
+		assertThat(counted.get(4)).isSameAs(counted.get(1));
+		assertThat(counted.get(5)).isSameAs(counted.get(2));
+		assertThat(listener.getCachedTriggerCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void metricNamesAreEvicted_test() {
+		Trigger first = trigger("first");
+		Trigger second = trigger("second");
+		listener.triggerFired(first, null);
+		listener.triggerFired(second, null);
+		assertThat(listener.getCachedTriggerCount()).isEqualTo(2);
+
+		listener.triggerComplete(first, null, CompletedExecutionInstruction.DELETE_TRIGGER);
+		assertThat(listener.getCachedTriggerCount()).isEqualTo(1);
+
+		listener.getSchedulerListener().jobUnscheduled(second.getKey());
+		assertThat(listener.getCachedTriggerCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void bufferedCounters_test() {
+		metrics.setEnableJobGroupCounter(false);
+		metrics.setEnableExecutionInstructionCounter(false);
+		metrics.setCounterFlushInterval(60000L);
+		listener.init();
+		Trigger trigger = trigger("myTrigger");
+		listener.triggerFired(trigger, null);
+		listener.triggerFired(trigger, null);
+		listener.triggerMisfired(trigger);
+		assertThat(counted).isEmpty();
+
+		// publishes the remaining deltas
+		listener.destroy();
+		assertThat(counted).containsExactlyInAnyOrder(
+				"quartz.job.jobGroup.myJob.fired",
+				"quartz.job.jobGroup.myJob.fired",
+				"quartz.trigger.triggerGroup.myTrigger.fired",
+				"quartz.trigger.triggerGroup.myTrigger.fired",
+				"quartz.job.jobGroup.myJob.misfired",
+				"quartz.trigger.triggerGroup.myTrigger.misfired");
+	}
+
+	private interface CounterWriterService extends CounterService, CounterWriter {}
+
+	@Test
+	public void bufferedDeltas_test() {
+		List<Delta<?>> deltas = new ArrayList<>();
+		ReflectionTestUtils.setField(listener, "counterService", new CounterWriterService() {
+			@Override
+			public void increment(String metricName) {
+				counted.add(metricName);
+			}
+			@Override
+			public void increment(Delta<?> delta) {
+				deltas.add(delta);
+			}
+			@Override
+			public void decrement(String metricName) {}
+			@Override
+			public void reset(String metricName) {}
+		});
+		metrics.setEnableJobGroupCounter(false);
+		metrics.setEnableExecutionInstructionCounter(false);
+		metrics.setCounterFlushInterval(60000L);
+		listener.init();
+		Trigger trigger = trigger("myTrigger");
+		for (int i = 0; i < 3; i++) {
+			listener.triggerFired(trigger, null);
+		}
+
+		// one call per metric
+		listener.destroy();
+		assertThat(counted).isEmpty();
+		assertThat(deltas).extracting(Delta::getName).containsExactlyInAnyOrder(
+				"quartz.job.jobGroup.myJob.fired", "quartz.trigger.triggerGroup.myTrigger.fired");
+		assertThat(deltas).extracting(delta -> (Object) delta.getValue()).containsOnly(3L);
+	}
+
+	@Test
+	public void bufferCounterService_test() {
+		CounterBuffers counterBuffers = new CounterBuffers();
+		ReflectionTestUtils.setField(listener, "counterService", new BufferCounterService(counterBuffers));
+		ReflectionTestUtils.setField(listener, "counterBuffers", counterBuffers);
+		metrics.setCounterFlushInterval(60000L);
+		listener.init();
+		Trigger trigger = trigger("myTrigger");
+		listener.triggerFired(trigger, null);
+		listener.triggerFired(trigger, null);
+
+		listener.destroy();
+		assertThat(counterBuffers.find("counter.quartz.trigger.triggerGroup.myTrigger.fired").getValue()).isEqualTo(2L);
+		assertThat(counterBuffers.find("counter.quartz.job.jobGroup.fired").getValue()).isEqualTo(2L);
+	}
+
+	@Test
+	public void bufferedCountersAreKeptUntilUnscheduled_test() {
+		metrics.setEnableJobGroupCounter(false);
+		metrics.setEnableExecutionInstructionCounter(false);
+		metrics.setCounterFlushInterval(60000L);
+		listener.init();
+		BufferedCounters bufferedCounters = (BufferedCounters) ReflectionTestUtils.getField(listener, "bufferedCounters");
+		Trigger trigger = trigger("myTrigger");
+		listener.triggerFired(trigger, null);
+
+		// idle counters are kept
+		bufferedCounters.flush();
+		bufferedCounters.flush();
+		assertThat(bufferedCounters.size()).isEqualTo(2);
+		assertThat(counted).hasSize(2);
+
+		listener.triggerFired(trigger, null);
+		listener.getSchedulerListener().jobUnscheduled(trigger.getKey());
+		bufferedCounters.flush();
+		assertThat(bufferedCounters.size()).isEqualTo(0);
+		assertThat(counted).hasSize(4);
+		listener.destroy();
+	}
+}
@@ -0,0 +1,152 @@
+package de.chandre.quartz.spring.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import de.chandre.quartz.spring.queue.AbstractQueueService;
+import de.chandre.quartz.spring.queue.AsyncQueueServiceImpl;
+import de.chandre.quartz.spring.queue.CallbackQueueServiceImpl;
+import de.chandre.quartz.spring.queue.QueuedInstance;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for {@link QuartzMetricsSampler}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class QuartzMetricsSamplerTest {
+
+	private CallbackQueueServiceImpl queueService;
+	private QuartzMetricsSampler sampler;
+	private CountDownLatch release = new CountDownLatch(1);
+
+	@Before
+	public void setUp() {
+		queueService = new CallbackQueueServiceImpl(true, 1);
+		queueService.setWaitForTerminationTime(1000L);
+		sampler = new QuartzMetricsSampler(null,
+				Collections.<String, AbstractQueueService<?>>singletonMap("queueService", queueService), 60000L);
+		sampler.start();
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		sampler.stop();
+		queueService.destroy();
+	}
+
+	private QueuedInstance blocking(String name) {
+		return blocking("myGroup", name);
+	}
+
+	private QueuedInstance blocking(String group, String name) {
+		return new QueuedInstance() {
+			@Override
+			public String getGroup() {
+				return group;
+			}
+			@Override
+			public String getName() {
+				return name;
+			}
+			@Override
+			public boolean run() {
+				try {
+					return release.await(5L, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		};
+	}
+
+	@Test
+	public void queueDepth_test() throws Exception {
+		// the first one is running, the other three are waiting
+		queueService.queueMe(blocking("first"));
+		queueService.queueMe(blocking("second"));
+		queueService.queueMe(blocking("second"));
+		queueService.queueMe(blocking("third"));
+		Thread.sleep(100L);
+
+		QuartzMetricsSnapshot snapshot = sampler.sample();
+		assertThat(snapshot.getTimestamp()).isGreaterThan(0L);
+		assertThat(snapshot.getThreadPoolSize()).isEqualTo(0);
+
+		QuartzMetricsSnapshot.QueueGroup group = snapshot.getQueueGroups().stream()
+				.filter(g -> "myGroup".equals(g.getGroup())).findFirst().get();
+		assertThat(group.getService()).isEqualTo("queueService");
+		assertThat(group.getSize()).isEqualTo(3);
+		assertThat(group.getQueuedKeys()).isEqualTo(2);
+		assertThat(group.getOldestQueuedAge()).isGreaterThanOrEqualTo(100L);
+
+		Map<String, Number> metrics = new QuartzPublicMetrics(sampler).metrics().stream()
+				.collect(Collectors.toMap(Metric::getName, Metric::getValue));
+		assertThat(metrics.get("quartz.queue.queueService.myGroup.size")).isEqualTo(3);
+		assertThat(metrics.get("quartz.queue.queueService.myGroup.keys")).isEqualTo(2);
+		assertThat(metrics).containsKeys(QuartzPublicMetrics.METRIC_THREADS_BUSY, QuartzPublicMetrics.METRIC_THREADS_AVAILABLE);
+	}
+
+	@Test
+	public void asyncQueueServiceGroups_test() throws Exception {
+		AsyncQueueServiceImpl asyncQueueService = new AsyncQueueServiceImpl(true);
+		asyncQueueService.setWaitForTerminationTime(1000L);
+		asyncQueueService.init();
+		QuartzMetricsSampler asyncSampler = new QuartzMetricsSampler(null,
+				Collections.<String, AbstractQueueService<?>>singletonMap("asyncService", asyncQueueService), 60000L);
+		asyncSampler.start();
+		try {
+			// the first one of each group is running, the second one is waiting
+			asyncQueueService.queueMe(blocking(QueuedInstance.DEFAULT_GROUP, "first"));
+			asyncQueueService.queueMe(blocking(QueuedInstance.DEFAULT_GROUP, "second"));
+			asyncQueueService.queueMe(blocking("first"));
+			asyncQueueService.queueMe(blocking("second"));
+			Thread.sleep(100L);
+
+			List<QuartzMetricsSnapshot.QueueGroup> groups = asyncSampler.sample().getQueueGroups();
+			// the default group is listed once
+			assertThat(groups).extracting(QuartzMetricsSnapshot.QueueGroup::getGroup)
+					.containsExactly(QueuedInstance.DEFAULT_GROUP, "myGroup");
+			assertThat(groups).extracting(QuartzMetricsSnapshot.QueueGroup::getSize).containsExactly(1, 1);
+		} finally {
+			release.countDown();
+			asyncSampler.stop();
+			asyncQueueService.destroy();
+		}
+	}
+
+	@Test
+	public void micrometerGauges_test() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		new MicrometerQuartzMetrics(sampler).bindTo(registry);
+
+		queueService.queueMe(blocking("first"));
+		queueService.queueMe(blocking("second"));
+		Thread.sleep(100L);
+		sampler.sample();
+
+		assertThat(registry.get(MicrometerQuartzMetrics.METRIC_QUEUE_SIZE)
+				.tag(MicrometerQuartzMetrics.TAG_SERVICE, "queueService")
+				.tag(MicrometerQuartzMetrics.TAG_GROUP, "myGroup").gauge().value()).isEqualTo(1.0);
+
+		queueService.queueMe(blocking("third"));
+		sampler.sample();
+		assertThat(registry.get(MicrometerQuartzMetrics.METRIC_QUEUE_SIZE)
+				.tag(MicrometerQuartzMetrics.TAG_GROUP, "myGroup").gauge().value()).isEqualTo(2.0);
+		assertThat(registry.get(MicrometerQuartzMetrics.METRIC_THREADS_BUSY).gauge().value()).isEqualTo(0.0);
+	}
+}
@@ -0,0 +1,301 @@
+package de.chandre.quartz.spring.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the dispatcher of {@link AsyncQueueServiceImpl}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class AsyncQueueServiceImplTest {
+
+	private AsyncQueueServiceImpl queueService;
+
+	@Before
+	public void setUp() {
+		queueService = new AsyncQueueServiceImpl();
+		queueService.setWaitForTerminationTime(1000L);
+		queueService.init();
+	}
+
+	@After
+	public void tearDown() {
+		queueService.destroy();
+	}
+
+	private Thread awaitDispatcherThread() throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000L;
+		// the dispatcher publishes itself through a volatile field, read it once per check
+		Thread dispatcher;
+		while (null == (dispatcher = queueService.getDispatcherThread()) && System.currentTimeMillis() < end) {
+			Thread.sleep(10L);
+		}
+		assertNotNull(dispatcher);
+		return dispatcher;
+	}
+
+	@Test
+	public void idleDispatcherBurnsNoCpu_test() throws Exception {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		assumeTrue(threadBean.isThreadCpuTimeSupported());
+		if (!threadBean.isThreadCpuTimeEnabled()) {
+			threadBean.setThreadCpuTimeEnabled(true);
+		}
+		// the id is handed over once, afterwards the dispatcher is only observed through the ThreadMXBean
+		AtomicLong dispatcherId = new AtomicLong(awaitDispatcherThread().getId());
+		// let the dispatcher settle after queuing one instance
+		CountDownLatch latch = new CountDownLatch(1);
+		assertThat(queueService.queueMe(new LatchInstance("warmup", latch))).isTrue();
+		assertThat(latch.await(5L, TimeUnit.SECONDS)).isTrue();
+
+		long cpuBefore = threadBean.getThreadCpuTime(dispatcherId.get());
+		Thread.sleep(1000L);
+		long cpuAfter = threadBean.getThreadCpuTime(dispatcherId.get());
+		ThreadInfo threadInfo = threadBean.getThreadInfo(dispatcherId.get());
+
+		assertThat(cpuBefore).isNotNegative();
+		assertThat(cpuAfter).isGreaterThanOrEqualTo(cpuBefore);
+		// a spinning dispatcher would consume nearly the whole second
+		assertThat(TimeUnit.NANOSECONDS.toMillis(cpuAfter - cpuBefore)).isLessThan(50L);
+		assertNotNull(threadInfo);
+		assertThat(threadInfo.getThreadName()).isEqualTo(AsyncQueueServiceImpl.DISPATCHER_THREAD_NAME);
+		assertThat(threadInfo.getThreadState()).isIn(Thread.State.WAITING, Thread.State.TIMED_WAITING);
+	}
+
+	@Test
+	public void queuedInstanceIsStartedImmediately_test() throws Exception {
+		awaitDispatcherThread();
+		for (int i = 0; i < 10; i++) {
+			CountDownLatch latch = new CountDownLatch(1);
+			long start = System.nanoTime();
+			assertThat(queueService.queueMe(new LatchInstance("instance" + i, latch))).isTrue();
+			assertThat(latch.await(1L, TimeUnit.SECONDS)).isTrue();
+			assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000L);
+		}
+	}
+
+	@Test
+	public void groupIsExecutedSequentially_test() throws Exception {
+		awaitDispatcherThread();
+		int count = 20;
+		CountDownLatch latch = new CountDownLatch(count);
+		StringBuffer order = new StringBuffer();
+		int[] concurrent = new int[2];
+		for (int i = 0; i < count; i++) {
+			final int number = i;
+			assertThat(queueService.queueMe(new QueuedInstance() {
+				@Override
+				public String getName() {
+					return "seq" + number;
+				}
+				@Override
+				public boolean run() {
+					synchronized (concurrent) {
+						concurrent[0]++;
+						concurrent[1] = Math.max(concurrent[0], concurrent[1]);
+					}
+					order.append(number).append(',');
+					synchronized (concurrent) {
+						concurrent[0]--;
+					}
+					latch.countDown();
+					return true;
+				}
+			})).isTrue();
+		}
+		assertThat(latch.await(5L, TimeUnit.SECONDS)).isTrue();
+		assertThat(concurrent[1]).isEqualTo(1);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			expected.append(i).append(',');
+		}
+		assertThat(order.toString()).isEqualTo(expected.toString());
+	}
+
+	@Test
+	public void duplicatesAreRejectedConcurrently_test() throws Exception {
+		awaitDispatcherThread();
+		// blocks the group, so following instances stay queued
+		CountDownLatch blocker = new CountDownLatch(1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		assertThat(queueService.queueMe(new QueuedInstance() {
+			@Override
+			public String getName() {
+				return "blocker";
+			}
+			@Override
+			public boolean run() {
+				blocked.countDown();
+				try {
+					return blocker.await(5L, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					return false;
+				}
+			}
+		})).isTrue();
+		assertThat(blocked.await(5L, TimeUnit.SECONDS)).isTrue();
+
+		CountDownLatch executed = new CountDownLatch(1);
+		AtomicInteger added = new AtomicInteger();
+		ExecutorService producers = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(producers.submit(() -> {
+					for (int j = 0; j < 100; j++) {
+						if (queueService.queueMe(new LatchInstance("duplicate", executed))) {
+							added.incrementAndGet();
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(5L, TimeUnit.SECONDS);
+			}
+		} finally {
+			producers.shutdown();
+		}
+		assertThat(added.get()).isEqualTo(1);
+		assertThat(queueService.getQueueMap().get(QueuedInstance.DEFAULT_GROUP).getQueuedKeys())
+			.containsExactly(QueuedInstance.DEFAULT_GROUP + QueuedInstance.KEY_SEPARATOR + "duplicate");
+
+		blocker.countDown();
+		assertThat(executed.await(5L, TimeUnit.SECONDS)).isTrue();
+		// after execution the same key can be queued again
+		CountDownLatch again = new CountDownLatch(1);
+		assertThat(queueService.queueMe(new LatchInstance("duplicate", again))).isTrue();
+		assertThat(again.await(5L, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void instancesRunOnOwnPool_test() throws Exception {
+		assertThat(queueService.getWorkerExecutor()).isInstanceOf(ForkJoinPool.class).isNotSameAs(ForkJoinPool.commonPool());
+		assertThat(((ForkJoinPool) queueService.getWorkerExecutor()).getParallelism()).isEqualTo(AsyncQueueServiceImpl.DEFAULT_PARALLELISM);
+		CountDownLatch latch = new CountDownLatch(1);
+		AtomicReference<String> threadName = new AtomicReference<>();
+		assertThat(queueService.queueMe(new QueuedInstance() {
+			@Override
+			public boolean run() {
+				threadName.set(Thread.currentThread().getName());
+				latch.countDown();
+				return true;
+			}
+		})).isTrue();
+		assertThat(latch.await(5L, TimeUnit.SECONDS)).isTrue();
+		assertThat(threadName.get()).startsWith(AsyncQueueServiceImpl.WORKER_THREAD_NAME_PREFIX);
+	}
+
+	@Test
+	public void groupsAreExecutedInTurns_test() throws Exception {
+		queueService.destroy();
+		queueService = new AsyncQueueServiceImpl(true);
+		queueService.setParallelism(1);
+		queueService.init();
+
+		CountDownLatch blocker = new CountDownLatch(1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		assertThat(queueService.queueMe(new GroupInstance("a", "blocker", () -> {
+			blocked.countDown();
+			try {
+				blocker.await(5L, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}))).isTrue();
+		assertThat(blocked.await(5L, TimeUnit.SECONDS)).isTrue();
+
+		List<String> order = new CopyOnWriteArrayList<>();
+		CountDownLatch executed = new CountDownLatch(6);
+		for (int i = 1; i <= 3; i++) {
+			String name = "a" + i;
+			queueService.queueMe(new GroupInstance("a", name, () -> {
+				order.add(name);
+				executed.countDown();
+			}));
+		}
+		for (int i = 1; i <= 3; i++) {
+			String name = "b" + i;
+			queueService.queueMe(new GroupInstance("b", name, () -> {
+				order.add(name);
+				executed.countDown();
+			}));
+		}
+		blocker.countDown();
+		assertThat(executed.await(5L, TimeUnit.SECONDS)).isTrue();
+		assertThat(order).containsExactly("b1", "a1", "b2", "a2", "b3", "a3");
+	}
+
+	private static class GroupInstance implements QueuedInstance {
+
+		private final String group;
+		private final String name;
+		private final Runnable work;
+
+		GroupInstance(String group, String name, Runnable work) {
+			this.group = group;
+			this.name = name;
+			this.work = work;
+		}
+
+		@Override
+		public String getGroup() {
+			return group;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public boolean run() {
+			work.run();
+			return true;
+		}
+	}
+
+	private static class LatchInstance implements QueuedInstance {
+
+		private final String name;
+		private final CountDownLatch latch;
+
+		LatchInstance(String name, CountDownLatch latch) {
+			this.name = name;
+			this.latch = latch;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public boolean run() {
+			latch.countDown();
+			return true;
+		}
+	}
+}
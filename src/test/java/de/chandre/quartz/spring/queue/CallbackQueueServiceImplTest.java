@@ -0,0 +1,241 @@
+package de.chandre.quartz.spring.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.chandre.quartz.spring.QuartzSchedulerProperties;
+
+/**
+ * Tests for {@link CallbackQueueServiceImpl}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class CallbackQueueServiceImplTest {
+
+	private CallbackQueueServiceImpl queueService;
+
+	@After
+	public void tearDown() {
+		if (null != queueService) {
+			queueService.destroy();
+		}
+	}
+
+	private static QueuedInstance instance(String name, CountDownLatch blocker) {
+		return new QueuedInstance() {
+			@Override
+			public String getName() {
+				return name;
+			}
+			@Override
+			public boolean run() {
+				try {
+					return null == blocker || blocker.await(5L, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					return false;
+				}
+			}
+		};
+	}
+
+	@Test
+	public void boundedQueueDropsOldest_test() throws Exception {
+		QuartzSchedulerProperties.Queue settings = new QuartzSchedulerProperties.Queue();
+		settings.setAllowMultipleInstances(true);
+		settings.setCapacity(2);
+		settings.setOverflowPolicy(QueueOverflowPolicy.DROP_OLDEST);
+		queueService = new CallbackQueueServiceImpl(settings);
+		queueService.setWaitForTerminationTime(1000L);
+
+		CountDownLatch blocker = new CountDownLatch(1);
+		Future<JobExecutionResult> running = queueService.queueMe(instance("running", blocker));
+		// wait until the first instance is running and not queued anymore
+		Thread.sleep(100L);
+		Future<JobExecutionResult> first = queueService.queueMe(instance("first", null));
+		Future<JobExecutionResult> second = queueService.queueMe(instance("second", null));
+		Future<JobExecutionResult> third = queueService.queueMe(instance("third", null));
+		assertThat(third).isNotNull();
+
+		JobExecutionResult dropped = first.get(1L, TimeUnit.SECONDS);
+		assertThat(dropped.isSuccess()).isFalse();
+		assertThat(dropped.getException()).isInstanceOf(RejectedExecutionException.class);
+
+		blocker.countDown();
+		assertThat(running.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		assertThat(second.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		assertThat(third.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+	}
+
+	@Test
+	public void boundedQueueRejects_test() throws Exception {
+		queueService = new CallbackQueueServiceImpl(true);
+		queueService.setCapacity(1);
+		queueService.setWaitForTerminationTime(1000L);
+
+		CountDownLatch blocker = new CountDownLatch(1);
+		Future<JobExecutionResult> running = queueService.queueMe(instance("running", blocker));
+		Thread.sleep(100L);
+		Future<JobExecutionResult> queued = queueService.queueMe(instance("queued", null));
+		assertThat(queued).isNotNull();
+		assertThat(queueService.queueMe(instance("rejected", null))).isNull();
+
+		blocker.countDown();
+		assertThat(running.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		assertThat(queued.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+	}
+
+	@Test
+	public void duplicatesAreRejected_test() throws Exception {
+		queueService = new CallbackQueueServiceImpl();
+		queueService.setWaitForTerminationTime(1000L);
+
+		CountDownLatch blocker = new CountDownLatch(1);
+		Future<JobExecutionResult> running = queueService.queueMe(instance("running", blocker));
+		Thread.sleep(100L);
+		Future<JobExecutionResult> queued = queueService.queueMe(instance("same", null));
+		assertThat(queued).isNotNull();
+		assertThat(queueService.queueMe(instance("same", null))).isNull();
+
+		blocker.countDown();
+		assertThat(running.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		assertThat(queued.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		assertThat(queueService.getGroups()).containsExactly(QueuedInstance.DEFAULT_GROUP);
+	}
+
+	@Test
+	public void drainedGroupsAreRemoved_test() throws Exception {
+		queueService = new CallbackQueueServiceImpl();
+		queueService.setWaitForTerminationTime(1000L);
+		List<Future<JobExecutionResult>> results = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			String group = "dynamic" + i;
+			results.add(queueService.queueMe(new QueuedInstance() {
+				@Override
+				public String getGroup() {
+					return group;
+				}
+				@Override
+				public boolean run() {
+					return true;
+				}
+			}));
+		}
+		for (Future<JobExecutionResult> result : results) {
+			assertThat(result.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		}
+		long end = System.currentTimeMillis() + 5000L;
+		while (queueService.getGroups().size() > 1 && System.currentTimeMillis() < end) {
+			Thread.sleep(10L);
+		}
+		// only the default group, which is always listed
+		assertThat(queueService.getGroups()).containsExactly(QueuedInstance.DEFAULT_GROUP);
+		assertThat(queueService.getGroupQueue("dynamic0")).isNull();
+		// the same group can be used again
+		assertThat(queueService.queueMe(instance("again", null)).get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+	}
+
+	@Test
+	public void rejectedExecutionRemovesEntry_test() throws Exception {
+		queueService = new CallbackQueueServiceImpl();
+		queueService.setWaitForTerminationTime(1000L);
+		// the executor is terminated behind the service's back, so it rejects the group
+		((ExecutorService) queueService.getGroupExecutor().getExecutor()).shutdown();
+
+		Future<JobExecutionResult> rejected = queueService.queueMe(instance("rejected", null));
+		assertThat(rejected.isDone()).isTrue();
+		try {
+			rejected.get();
+			throw new AssertionError("rejected execution expected");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+		}
+		// neither the entry nor the task are left behind
+		assertThat(queueService.getGroupQueue(QueuedInstance.DEFAULT_GROUP)).isNull();
+		assertThat(queueService.getGroupExecutor().getGroups()).isEmpty();
+	}
+
+	@Test
+	public void backlogIsCoalesced_test() throws Exception {
+		queueService = new CallbackQueueServiceImpl(true);
+		queueService.setCoalescing(true);
+		queueService.setWaitForTerminationTime(1000L);
+
+		CountDownLatch blocker = new CountDownLatch(1);
+		Future<JobExecutionResult> running = queueService.queueMe(instance("running", blocker));
+		Thread.sleep(100L);
+		AtomicInteger executions = new AtomicInteger();
+		Future<JobExecutionResult> first = null;
+		for (int i = 0; i < 10; i++) {
+			Future<JobExecutionResult> queued = queueService.queueMe(new QueuedInstance() {
+				@Override
+				public String getName() {
+					return "fired";
+				}
+				@Override
+				public boolean run() {
+					executions.incrementAndGet();
+					return true;
+				}
+			});
+			first = null == first ? queued : first;
+			assertThat(queued).isSameAs(first);
+		}
+		assertThat(queueService.getGroupQueue(QueuedInstance.DEFAULT_GROUP).size()).isEqualTo(1);
+
+		blocker.countDown();
+		assertThat(running.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		assertThat(first.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		assertThat(executions.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void batchesAreDrained_test() throws Exception {
+		queueService = new CallbackQueueServiceImpl(true);
+		queueService.setWaitForTerminationTime(1000L);
+
+		CountDownLatch blocker = new CountDownLatch(1);
+		Future<JobExecutionResult> running = queueService.queueMe(instance("running", blocker));
+		Thread.sleep(100L);
+		List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+		List<Future<JobExecutionResult>> results = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			String name = "item" + i;
+			results.add(queueService.queueMe(new BatchQueuedInstance() {
+				@Override
+				public String getName() {
+					return name;
+				}
+				@Override
+				public int getMaxBatchSize() {
+					return 10;
+				}
+				@Override
+				public boolean runBatch(List<BatchQueuedInstance> batch) {
+					batchSizes.add(batch.size());
+					return true;
+				}
+			}));
+		}
+
+		blocker.countDown();
+		assertThat(running.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		for (Future<JobExecutionResult> result : results) {
+			assertThat(result.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		}
+		assertThat(batchSizes).containsExactly(10, 10, 5);
+	}
+}
@@ -0,0 +1,101 @@
+package de.chandre.quartz.spring.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CompletableQueueServiceImpl}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class CompletableQueueServiceImplTest {
+
+	private CompletableQueueServiceImpl queueService;
+
+	@After
+	public void tearDown() {
+		if (null != queueService) {
+			queueService.destroy();
+		}
+	}
+
+	private static QueuedInstance instance(String name, CountDownLatch blocker) {
+		return new QueuedInstance() {
+			@Override
+			public String getName() {
+				return name;
+			}
+			@Override
+			public boolean run() {
+				try {
+					return null == blocker || blocker.await(5L, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					return false;
+				}
+			}
+		};
+	}
+
+	@Test
+	public void queueMeDoesNotBlock_test() throws Exception {
+		queueService = new CompletableQueueServiceImpl();
+		queueService.setWaitForTerminationTime(1000L);
+
+		CountDownLatch blocker = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		AtomicReference<JobExecutionResult> result = new AtomicReference<>();
+		CompletionStage<JobExecutionResult> stage = queueService.queueMe(instance("running", blocker));
+		stage.thenAccept(jer -> {
+			result.set(jer);
+			done.countDown();
+		});
+		assertThat(stage.toCompletableFuture().isDone()).isFalse();
+
+		blocker.countDown();
+		assertThat(done.await(5L, TimeUnit.SECONDS)).isTrue();
+		assertThat(result.get().isSuccess()).isTrue();
+	}
+
+	@Test
+	public void rejectedInstanceIsCompleted_test() throws Exception {
+		queueService = new CompletableQueueServiceImpl();
+		queueService.setWaitForTerminationTime(1000L);
+
+		CountDownLatch blocker = new CountDownLatch(1);
+		CompletionStage<JobExecutionResult> running = queueService.queueMe(instance("running", blocker));
+		Thread.sleep(100L);
+		CompletionStage<JobExecutionResult> queued = queueService.queueMe(instance("same", null));
+		CompletionStage<JobExecutionResult> rejected = queueService.queueMe(instance("same", null));
+		assertThat(rejected.toCompletableFuture().isDone()).isTrue();
+		JobExecutionResult rejectedResult = rejected.toCompletableFuture().get();
+		assertThat(rejectedResult.isSuccess()).isFalse();
+		assertThat(rejectedResult.getException()).isInstanceOf(RejectedExecutionException.class);
+
+		blocker.countDown();
+		assertThat(running.toCompletableFuture().get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+		assertThat(queued.toCompletableFuture().get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+	}
+
+	@Test
+	public void resetCancelsQueuedInstances_test() throws Exception {
+		queueService = new CompletableQueueServiceImpl(true, 1);
+		queueService.setWaitForTerminationTime(1000L);
+
+		CountDownLatch blocker = new CountDownLatch(1);
+		queueService.queueMe(instance("running", blocker));
+		Thread.sleep(100L);
+		CompletionStage<JobExecutionResult> queued = queueService.queueMe(instance("queued", null));
+		queueService.reset();
+		blocker.countDown();
+		assertThat(queued.toCompletableFuture().isCancelled()).isTrue();
+	}
+}
@@ -0,0 +1,286 @@
+package de.chandre.quartz.spring.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests the capacity, overflow policies and priority ordering of {@link GroupQueue}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class GroupQueueTest {
+
+	private static QueuedInstance instance(String name) {
+		return new QueuedInstance() {
+			@Override
+			public String getName() {
+				return name;
+			}
+			@Override
+			public boolean run() {
+				return true;
+			}
+		};
+	}
+
+	private static QueuedInstance instance(String name, int priority, long deadline) {
+		return new QueuedInstance() {
+			@Override
+			public String getName() {
+				return name;
+			}
+			@Override
+			public int getPriority() {
+				return priority;
+			}
+			@Override
+			public long getDeadline() {
+				return deadline;
+			}
+			@Override
+			public boolean run() {
+				return true;
+			}
+		};
+	}
+
+	private static List<String> pollAll(GroupQueue queue) {
+		List<String> names = new ArrayList<>();
+		GroupQueue.Entry entry;
+		while (null != (entry = queue.poll())) {
+			names.add(entry.getInstance().getName());
+		}
+		return names;
+	}
+
+	@Test
+	public void unbounded_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", GroupQueue.UNBOUNDED, QueueOverflowPolicy.REJECT, 0L, false);
+		for (int i = 0; i < 1000; i++) {
+			assertThat(queue.offer(instance("i" + i)).getStatus()).isEqualTo(GroupQueue.Offer.Status.QUEUED);
+		}
+		assertThat(queue.size()).isEqualTo(1000);
+	}
+
+	@Test
+	public void uniqueKeys_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", GroupQueue.UNBOUNDED, QueueOverflowPolicy.REJECT, 0L, true);
+		assertThat(queue.offer(instance("a")).isAccepted()).isTrue();
+		assertThat(queue.offer(instance("a")).isAccepted()).isFalse();
+		assertThat(queue.poll().getInstance().getName()).isEqualTo("a");
+		assertThat(queue.offer(instance("a")).isAccepted()).isTrue();
+	}
+
+	@Test
+	public void reject_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", 2, QueueOverflowPolicy.REJECT, 0L, false);
+		assertThat(queue.offer(instance("a")).isAccepted()).isTrue();
+		assertThat(queue.offer(instance("b")).isAccepted()).isTrue();
+		assertThat(queue.offer(instance("c")).getStatus()).isEqualTo(GroupQueue.Offer.Status.REJECTED);
+		assertThat(queue.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void dropOldest_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", 2, QueueOverflowPolicy.DROP_OLDEST, 0L, false);
+		List<String> dropped = new ArrayList<>();
+		queue.setDropListener(entry -> dropped.add(entry.getInstance().getName()));
+		queue.offer(instance("a"));
+		queue.offer(instance("b"));
+		assertThat(queue.offer(instance("c")).getStatus()).isEqualTo(GroupQueue.Offer.Status.REPLACED_OLDEST);
+		assertThat(dropped).containsExactly("a");
+		assertThat(queue.getQueuedKeys()).containsOnly("default:b", "default:c");
+		assertThat(queue.poll().getInstance().getName()).isEqualTo("b");
+		assertThat(queue.poll().getInstance().getName()).isEqualTo("c");
+		assertThat(queue.poll()).isNull();
+	}
+
+	@Test
+	public void blockWithTimeout_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", 1, QueueOverflowPolicy.BLOCK, 100L, false);
+		queue.offer(instance("a"));
+		long start = System.nanoTime();
+		assertThat(queue.offer(instance("b")).isAccepted()).isFalse();
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(90L);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			GroupQueue blockingQueue = new GroupQueue("group", 1, QueueOverflowPolicy.BLOCK, 5000L, false);
+			blockingQueue.offer(instance("a"));
+			Future<GroupQueue.Offer> offer = executor.submit(() -> blockingQueue.offer(instance("b")));
+			Thread.sleep(50L);
+			assertThat(offer.isDone()).isFalse();
+			assertThat(blockingQueue.poll().getInstance().getName()).isEqualTo("a");
+			assertThat(offer.get(5L, TimeUnit.SECONDS).isAccepted()).isTrue();
+			assertThat(blockingQueue.poll().getInstance().getName()).isEqualTo("b");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void coalesce_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", 2, QueueOverflowPolicy.COALESCE, 0L, false);
+		queue.offer(instance("a"));
+		GroupQueue.Offer first = queue.offer(instance("b"));
+		QueuedInstance newer = instance("b");
+		GroupQueue.Offer coalesced = queue.offer(newer);
+		assertThat(coalesced.getStatus()).isEqualTo(GroupQueue.Offer.Status.COALESCED);
+		assertThat(coalesced.getEntry()).isSameAs(first.getEntry());
+		assertThat(queue.offer(instance("c")).isAccepted()).isFalse();
+		assertThat(queue.size()).isEqualTo(2);
+		assertThat(queue.poll().getInstance().getName()).isEqualTo("a");
+		assertThat(queue.poll().getInstance()).isSameAs(newer);
+	}
+
+	@Test
+	public void prioritized_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", GroupQueue.UNBOUNDED, QueueOverflowPolicy.REJECT, 0L, false, true);
+		queue.offer(instance("bulk1", 1, QueuedInstance.NO_DEADLINE));
+		queue.offer(instance("default1"));
+		queue.offer(instance("urgent", 10, QueuedInstance.NO_DEADLINE));
+		queue.offer(instance("bulk2", 1, QueuedInstance.NO_DEADLINE));
+		queue.offer(instance("later", 5, 2000L));
+		queue.offer(instance("sooner", 5, 1000L));
+		queue.offer(instance("default2"));
+		assertThat(pollAll(queue)).containsExactly("urgent", "sooner", "later", "default1", "default2", "bulk1", "bulk2");
+	}
+
+	@Test
+	public void prioritizedOverflow_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", 2, QueueOverflowPolicy.DROP_OLDEST, 0L, false, true);
+		List<String> dropped = new ArrayList<>();
+		queue.setDropListener(entry -> dropped.add(entry.getInstance().getName()));
+		queue.offer(instance("a", 10, QueuedInstance.NO_DEADLINE));
+		queue.offer(instance("b", 1, QueuedInstance.NO_DEADLINE));
+		assertThat(queue.getOldestQueuedAt()).isGreaterThan(0L);
+		assertThat(queue.offer(instance("c", 5, QueuedInstance.NO_DEADLINE)).getStatus()).isEqualTo(GroupQueue.Offer.Status.REPLACED_OLDEST);
+		assertThat(dropped).containsExactly("a");
+		assertThat(pollAll(queue)).containsExactly("c", "b");
+
+		GroupQueue coalescing = new GroupQueue("group", 2, QueueOverflowPolicy.COALESCE, 0L, false, true);
+		coalescing.offer(instance("a", 5, QueuedInstance.NO_DEADLINE));
+		coalescing.offer(instance("b", 1, QueuedInstance.NO_DEADLINE));
+		assertThat(coalescing.offer(instance("b", 10, QueuedInstance.NO_DEADLINE)).getStatus()).isEqualTo(GroupQueue.Offer.Status.COALESCED);
+		assertThat(pollAll(coalescing)).containsExactly("b", "a");
+	}
+
+	@Test
+	public void coalescing_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", GroupQueue.UNBOUNDED, QueueOverflowPolicy.REJECT, 0L, true);
+		queue.setCoalescing(true);
+		queue.offer(instance("a"));
+		queue.offer(instance("b"));
+		for (int i = 0; i < 100; i++) {
+			assertThat(queue.offer(instance("a")).getStatus()).isEqualTo(GroupQueue.Offer.Status.COALESCED);
+		}
+		QueuedInstance kept = instance("b");
+		QueuedInstance keeping = new QueuedInstance() {
+			@Override
+			public String getName() {
+				return "b";
+			}
+			@Override
+			public QueuedInstance coalesce(QueuedInstance queued) {
+				return kept;
+			}
+			@Override
+			public boolean run() {
+				return true;
+			}
+		};
+		queue.offer(kept);
+		assertThat(queue.size()).isEqualTo(2);
+		assertThat(queue.offer(keeping).getStatus()).isEqualTo(GroupQueue.Offer.Status.COALESCED);
+		assertThat(queue.size()).isEqualTo(2);
+		assertThat(queue.poll().getInstance().getName()).isEqualTo("a");
+		assertThat(queue.poll().getInstance()).isSameAs(kept);
+		assertThat(queue.offer(instance("a")).getStatus()).isEqualTo(GroupQueue.Offer.Status.QUEUED);
+	}
+
+	private static class Batched implements BatchQueuedInstance {
+		private final String name;
+
+		Batched(String name) {
+			this.name = name;
+		}
+		@Override
+		public String getName() {
+			return name;
+		}
+		@Override
+		public int getMaxBatchSize() {
+			return 3;
+		}
+		@Override
+		public boolean runBatch(List<BatchQueuedInstance> batch) {
+			return true;
+		}
+	}
+
+	private static List<String> names(List<GroupQueue.Entry> entries) {
+		List<String> names = new ArrayList<>();
+		entries.forEach(entry -> names.add(entry.getInstance().getName()));
+		return names;
+	}
+
+	@Test
+	public void pollBatch_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", GroupQueue.UNBOUNDED, QueueOverflowPolicy.REJECT, 0L, false);
+		queue.offer(instance("single"));
+		for (int i = 1; i <= 4; i++) {
+			queue.offer(new Batched("b" + i));
+		}
+		queue.offer(instance("other"));
+		queue.offer(new Batched("b5"));
+		assertThat(names(queue.pollBatch())).containsExactly("single");
+		assertThat(names(queue.pollBatch())).containsExactly("b1", "b2", "b3");
+		assertThat(names(queue.pollBatch())).containsExactly("b4");
+		assertThat(names(queue.pollBatch())).containsExactly("other");
+		assertThat(names(queue.pollBatch())).containsExactly("b5");
+		assertThat(queue.pollBatch()).isEmpty();
+		assertThat(queue.getQueuedKeyCount()).isZero();
+	}
+
+	@Test
+	public void permits_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", GroupQueue.UNBOUNDED, QueueOverflowPolicy.REJECT, 0L, false);
+		assertThat(queue.tryAcquire()).isTrue();
+		assertThat(queue.tryAcquire()).isFalse();
+		queue.release();
+
+		queue.setMaxConcurrency(3);
+		for (int i = 0; i < 3; i++) {
+			assertThat(queue.tryAcquire()).isTrue();
+		}
+		assertThat(queue.tryAcquire()).isFalse();
+		assertThat(queue.getAcquired()).isEqualTo(3);
+		queue.release();
+		assertThat(queue.tryAcquire()).isTrue();
+	}
+
+	@Test
+	public void retire_test() throws Exception {
+		GroupQueue queue = new GroupQueue("group", GroupQueue.UNBOUNDED, QueueOverflowPolicy.REJECT, 0L, false);
+		queue.offer(instance("a"));
+		assertThat(queue.retireIfIdle()).isFalse();
+		queue.poll();
+		assertThat(queue.tryAcquire()).isTrue();
+		assertThat(queue.retireIfIdle()).isFalse();
+		queue.release();
+		assertThat(queue.retireIfIdle()).isTrue();
+		GroupQueue.Offer offer = queue.offer(instance("b"));
+		assertThat(offer.isRetired()).isTrue();
+		assertThat(offer.isAccepted()).isFalse();
+		assertThat(queue.size()).isZero();
+	}
+}
@@ -0,0 +1,174 @@
+package de.chandre.quartz.spring.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SerialGroupExecutor}
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class SerialGroupExecutorTest {
+
+	private static final int POOL_SIZE = 3;
+
+	private ExecutorService executorService;
+	private SerialGroupExecutor groupExecutor;
+
+	@Before
+	public void setUp() {
+		executorService = Executors.newFixedThreadPool(POOL_SIZE);
+		groupExecutor = new SerialGroupExecutor(executorService);
+	}
+
+	@After
+	public void tearDown() {
+		executorService.shutdownNow();
+	}
+
+	@Test
+	public void manyGroupsShareFixedPool_test() throws Exception {
+		int groups = 200;
+		int tasksPerGroup = 20;
+		CountDownLatch latch = new CountDownLatch(groups * tasksPerGroup);
+		Map<String, List<Integer>> executionOrder = new ConcurrentHashMap<>();
+		Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+		Set<String> threadNames = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		AtomicInteger maxRunningPerGroup = new AtomicInteger();
+
+		for (int task = 0; task < tasksPerGroup; task++) {
+			for (int group = 0; group < groups; group++) {
+				String groupName = "group" + group;
+				executionOrder.putIfAbsent(groupName, Collections.synchronizedList(new ArrayList<>()));
+				running.putIfAbsent(groupName, new AtomicInteger());
+				final int number = task;
+				groupExecutor.execute(groupName, () -> {
+					int current = running.get(groupName).incrementAndGet();
+					maxRunningPerGroup.accumulateAndGet(current, Math::max);
+					threadNames.add(Thread.currentThread().getName());
+					executionOrder.get(groupName).add(number);
+					running.get(groupName).decrementAndGet();
+					latch.countDown();
+				});
+			}
+		}
+
+		assertThat(latch.await(10L, TimeUnit.SECONDS)).isTrue();
+		assertThat(maxRunningPerGroup.get()).isEqualTo(1);
+		assertThat(threadNames.size()).isLessThanOrEqualTo(POOL_SIZE);
+		// the workers of drained groups are removed
+		awaitNoGroups(groupExecutor);
+		List<Integer> expected = new ArrayList<>();
+		for (int task = 0; task < tasksPerGroup; task++) {
+			expected.add(task);
+		}
+		executionOrder.values().forEach(order -> assertThat(order).isEqualTo(expected));
+	}
+
+	private static void awaitNoGroups(SerialGroupExecutor groupExecutor) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000L;
+		while (!groupExecutor.getGroups().isEmpty() && System.currentTimeMillis() < end) {
+			Thread.sleep(10L);
+		}
+		assertThat(groupExecutor.getGroups()).isEmpty();
+	}
+
+	@Test
+	public void drainedGroupsAreRemoved_test() throws Exception {
+		CountDownLatch blocker = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		groupExecutor.execute("busy", () -> {
+			started.countDown();
+			try {
+				blocker.await(5L, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertThat(started.await(5L, TimeUnit.SECONDS)).isTrue();
+		int groups = 10000;
+		CountDownLatch latch = new CountDownLatch(groups);
+		for (int group = 0; group < groups; group++) {
+			groupExecutor.execute("dynamic" + group, latch::countDown);
+		}
+		assertThat(latch.await(10L, TimeUnit.SECONDS)).isTrue();
+		// only the group with a running task is held
+		long end = System.currentTimeMillis() + 5000L;
+		while (groupExecutor.getGroups().size() > 1 && System.currentTimeMillis() < end) {
+			Thread.sleep(10L);
+		}
+		assertThat(groupExecutor.getGroups()).containsExactly("busy");
+
+		// a removed group is created again with the next task
+		CountDownLatch again = new CountDownLatch(1);
+		groupExecutor.execute("dynamic0", again::countDown);
+		assertThat(again.await(5L, TimeUnit.SECONDS)).isTrue();
+		blocker.countDown();
+		awaitNoGroups(groupExecutor);
+	}
+
+	@Test
+	public void blockedGroupDoesNotBlockOthers_test() throws Exception {
+		CountDownLatch blocker = new CountDownLatch(1);
+		CountDownLatch otherGroup = new CountDownLatch(1);
+		groupExecutor.execute("blocked", () -> {
+			try {
+				blocker.await(5L, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		groupExecutor.execute("blocked", otherGroup::countDown);
+		groupExecutor.execute("free", otherGroup::countDown);
+
+		assertThat(otherGroup.await(5L, TimeUnit.SECONDS)).isTrue();
+		assertThat(otherGroup.getCount()).isEqualTo(0L);
+		blocker.countDown();
+	}
+
+	@Test
+	public void groupWithConcurrencyRunsInParallel_test() throws Exception {
+		SerialGroupExecutor concurrentExecutor = new SerialGroupExecutor(executorService, group -> "parallel".equals(group) ? 2 : 1);
+		CountDownLatch blocker = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		for (int i = 0; i < 4; i++) {
+			concurrentExecutor.execute("parallel", () -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				started.countDown();
+				try {
+					blocker.await(5L, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+			});
+		}
+		CountDownLatch serial = new CountDownLatch(1);
+		concurrentExecutor.execute("serial", serial::countDown);
+
+		assertThat(started.await(5L, TimeUnit.SECONDS)).isTrue();
+		assertThat(serial.await(5L, TimeUnit.SECONDS)).isTrue();
+		Thread.sleep(50L);
+		assertThat(running.get()).isEqualTo(2);
+		blocker.countDown();
+		assertThat(maxRunning.get()).isEqualTo(2);
+	}
+}
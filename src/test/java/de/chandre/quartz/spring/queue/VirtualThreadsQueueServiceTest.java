@@ -0,0 +1,97 @@
+package de.chandre.quartz.spring.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests the queue services with virtual threads enabled. On JVMs without virtual threads the services have to fall back to platform threads.
+ * @author André
+ * @since 1.0.6
+ *
+ */
+public class VirtualThreadsQueueServiceTest {
+
+	private static boolean isVirtual(Thread thread) {
+		try {
+			return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+		} catch (ReflectiveOperationException e) {
+			return false;
+		}
+	}
+
+	@Test
+	public void callbackQueueService_test() throws Exception {
+		CallbackQueueServiceImpl queueService = new CallbackQueueServiceImpl(true);
+		queueService.setUseVirtualThreads(true);
+		queueService.setWaitForTerminationTime(1000L);
+		try {
+			int count = 200;
+			AtomicInteger running = new AtomicInteger();
+			AtomicInteger maxRunning = new AtomicInteger();
+			AtomicInteger virtual = new AtomicInteger();
+			List<Future<JobExecutionResult>> futures = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				futures.add(queueService.queueMe(new QueuedInstance() {
+					@Override
+					public boolean run() {
+						maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+						if (isVirtual(Thread.currentThread())) {
+							virtual.incrementAndGet();
+						}
+						running.decrementAndGet();
+						return true;
+					}
+				}));
+			}
+			for (Future<JobExecutionResult> future : futures) {
+				assertThat(future.get(5L, TimeUnit.SECONDS).isSuccess()).isTrue();
+			}
+			assertThat(maxRunning.get()).isEqualTo(1);
+			assertThat(virtual.get()).isEqualTo(VirtualThreads.isAvailable() ? count : 0);
+		} finally {
+			queueService.destroy();
+		}
+	}
+
+	@Test
+	public void asyncQueueService_test() throws Exception {
+		AsyncQueueServiceImpl queueService = new AsyncQueueServiceImpl(true);
+		queueService.setUseVirtualThreads(true);
+		queueService.setWaitForTerminationTime(1000L);
+		queueService.init();
+		try {
+			int count = 200;
+			CountDownLatch latch = new CountDownLatch(count);
+			AtomicInteger running = new AtomicInteger();
+			AtomicInteger maxRunning = new AtomicInteger();
+			AtomicInteger virtual = new AtomicInteger();
+			for (int i = 0; i < count; i++) {
+				assertThat(queueService.queueMe(new QueuedInstance() {
+					@Override
+					public boolean run() {
+						maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+						if (isVirtual(Thread.currentThread())) {
+							virtual.incrementAndGet();
+						}
+						running.decrementAndGet();
+						latch.countDown();
+						return true;
+					}
+				})).isTrue();
+			}
+			assertThat(latch.await(5L, TimeUnit.SECONDS)).isTrue();
+			assertThat(maxRunning.get()).isEqualTo(1);
+			assertThat(virtual.get()).isEqualTo(VirtualThreads.isAvailable() ? count : 0);
+		} finally {
+			queueService.destroy();
+		}
+	}
+}
@@ -25,6 +25,8 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import de.chandre.quartz.spring.app.TestApplication2;
+import de.chandre.quartz.spring.listener.JobMetricsListener;
+import de.chandre.quartz.spring.listener.TriggerMetricsListener;
 
 /**
  * JMX test
@@ -69,6 +71,9 @@ public class QuartzSchedulerAutoConfig10Test {
 		
 		assertThat(scheduler.getSchedulerInstanceId()).isEqualTo("MyTestInstanceId");
 		
+		assertThat(scheduler.getListenerManager().getTriggerListener(TriggerMetricsListener.class.getSimpleName())).isNotNull();
+		assertThat(scheduler.getListenerManager().getJobListener(JobMetricsListener.class.getSimpleName())).isNotNull();
+		
 		try {
 			ManagementFactory.getPlatformMBeanServer();
 			List<MBeanServer> servers = MBeanServerFactory.findMBeanServer(null);
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertTrue;
 import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.management.MBeanServer;
@@ -26,8 +27,10 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import de.chandre.quartz.context.TestContextConfiguration11;
-import de.chandre.quartz.jobs.CallbackQueuedJob;
 import de.chandre.quartz.spring.app.TestApplication2;
+import de.chandre.quartz.spring.endpoint.QuartzEndpoint;
+import de.chandre.quartz.spring.metrics.QuartzMetricsSampler;
+import de.chandre.quartz.spring.metrics.QuartzMetricsSnapshot;
 import de.chandre.quartz.spring.queue.QueueService;
 import de.chandre.quartz.spring.queue.QueuedInstance;
 
@@ -68,6 +71,12 @@ public class QuartzSchedulerAutoConfig11Test {
 	@Autowired
 	private QueueService queueService;
 	
+	@Autowired
+	private QuartzMetricsSampler metricsSampler;
+	
+	@Autowired
+	private QuartzEndpoint quartzEndpoint;
+	
 	@Test
 	public void startEnvironment_test() throws SchedulerException {
 		assertNotNull(scheduler);
@@ -93,7 +102,20 @@ public class QuartzSchedulerAutoConfig11Test {
 			//wait a while until some jobs have been triggered
 			Thread.sleep(1000L);
 			
-			assertThat(queueService.getGroups()).containsOnlyOnce(QueuedInstance.DEFAULT_GROUP, CallbackQueuedJob.GROUP);
+			// drained groups are removed, so the group of the job is only listed while an instance is queued or running
+			assertThat(queueService.getGroups()).containsOnlyOnce(QueuedInstance.DEFAULT_GROUP).doesNotHaveDuplicates();
+			
+			QuartzMetricsSnapshot snapshot = metricsSampler.sample();
+			assertThat(snapshot.getThreadPoolSize()).isGreaterThan(0);
+			assertThat(snapshot.getQueueGroups()).extracting(QuartzMetricsSnapshot.QueueGroup::getGroup)
+					.containsOnlyOnce(QueuedInstance.DEFAULT_GROUP);
+			
+			Map<String, Object> state = quartzEndpoint.invoke();
+			assertThat(state).containsKeys("scheduler", "jobs", "executing", "queues", "recentExecutions");
+			assertThat((List<?>) state.get("jobs")).isNotEmpty();
+			assertThat((List<?>) state.get("recentExecutions")).isNotEmpty();
+			// cached
+			assertThat(quartzEndpoint.invoke()).isSameAs(state);
 			
 		} catch (Exception e) {
 			assertTrue(e.getMessage(), false);
@@ -0,0 +1,114 @@
+package de.chandre.quartz.spring.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.listeners.SchedulerListenerSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import de.chandre.quartz.context.TestContextConfiguration4;
+import de.chandre.quartz.spring.QuartzTriggerRegistrar;
+import de.chandre.quartz.spring.app.TestApplication;
+import de.chandre.quartz.spring.endpoint.QuartzHealthIndicator;
+
+/**
+ * deferred trigger registration test
+ * @author André
+ * @since 1.0.6
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes=TestApplication.class)
+@ContextConfiguration(classes= {TestContextConfiguration4.class, QuartzSchedulerAutoConfig12Test.EventConfiguration.class})
+@TestPropertySource(properties = {
+		"quartz.enabled=true",
+		"quartz.persistence.persisted=false",
+		"quartz.scheduler-factory.deferred-trigger-registration=true",
+		"quartz.scheduler-factory.trigger-registration-batch-size=3",
+		"flyway.enabled=false",
+		"spring.datasource.url=jdbc:h2:mem:datajpa;MODE=Oracle",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"})
+@DirtiesContext
+public class QuartzSchedulerAutoConfig12Test {
+
+	@Configuration
+	public static class EventConfiguration {
+
+		private final List<String> events = new CopyOnWriteArrayList<>();
+
+		@Bean
+		public SchedulerListenerSupport eventListener() {
+			return new SchedulerListenerSupport() {
+				@Override
+				public void jobScheduled(Trigger trigger) {
+					events.add("scheduled");
+				}
+				@Override
+				public void schedulerStarting() {
+					events.add("starting");
+				}
+			};
+		}
+	}
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Autowired
+	private EventConfiguration eventConfiguration;
+
+	@Autowired
+	private Scheduler scheduler;
+
+	@Autowired
+	private QuartzTriggerRegistrar triggerRegistrar;
+
+	@Test
+	public void startEnvironment_test12() throws SchedulerException {
+		assertNotNull(scheduler);
+		assertThat(triggerRegistrar.isRegistered()).isTrue();
+		assertThat(triggerRegistrar.getBatchSize()).isEqualTo(3);
+
+		assertThat(scheduler.getJobGroupNames()).containsExactlyInAnyOrder(
+				TestContextConfiguration4.SIMPLE_JOB_GROUP, TestContextConfiguration4.CRON_JOB_GROUP);
+		assertThat(scheduler.getTriggerKeys(GroupMatcher.anyTriggerGroup())).hasSize(4)
+				.contains(new TriggerKey("STName2", "STGroup2"), new TriggerKey("CTName2", "Cron"));
+
+		JobKey simpleJob = new JobKey(TestContextConfiguration4.SIMPLE_JOB_NAME, TestContextConfiguration4.SIMPLE_JOB_GROUP);
+		assertThat(scheduler.getTriggersOfJob(simpleJob)).hasSize(2);
+		// the job detail must not be stored with the trigger
+		assertThat(scheduler.getTrigger(new TriggerKey("STName2", "STGroup2")).getJobDataMap())
+				.containsKey("myKey").doesNotContainKey(QuartzTriggerRegistrar.JOB_DETAIL_KEY);
+
+		// the triggers are registered before the scheduler is started
+		assertThat(eventConfiguration.events).containsExactly("scheduled", "scheduled", "scheduled", "scheduled", "starting");
+
+		// only registered with async startup
+		assertThat(applicationContext.getBeansOfType(QuartzHealthIndicator.class)).isEmpty();
+	}
+
+}
@@ -0,0 +1,91 @@
+package de.chandre.quartz.spring.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quartz.Scheduler;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import de.chandre.quartz.context.TestContextConfiguration4;
+import de.chandre.quartz.spring.QuartzAsyncSchedulerStarter;
+import de.chandre.quartz.spring.QuartzSchedulerStartedEvent;
+import de.chandre.quartz.spring.app.TestApplication;
+import de.chandre.quartz.spring.endpoint.QuartzHealthIndicator;
+
+/**
+ * async startup test
+ * @author André
+ * @since 1.0.6
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes=TestApplication.class)
+@ContextConfiguration(classes= {TestContextConfiguration4.class, QuartzSchedulerAutoConfig13Test.StartedListener.class})
+@TestPropertySource(properties = {
+		"quartz.enabled=true",
+		"quartz.persistence.persisted=false",
+		"quartz.scheduler-factory.deferred-trigger-registration=true",
+		"quartz.scheduler-factory.async-startup=true",
+		"flyway.enabled=false",
+		"spring.datasource.url=jdbc:h2:mem:datajpa;MODE=Oracle",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"})
+@DirtiesContext
+public class QuartzSchedulerAutoConfig13Test {
+
+	@Configuration
+	public static class StartedListener {
+
+		private final CompletableFuture<QuartzSchedulerStartedEvent> event = new CompletableFuture<>();
+
+		@EventListener
+		public void onStarted(QuartzSchedulerStartedEvent startedEvent) {
+			event.complete(startedEvent);
+		}
+	}
+
+	@Autowired
+	private Scheduler scheduler;
+
+	@Autowired
+	private QuartzAsyncSchedulerStarter starter;
+
+	@Autowired
+	private QuartzHealthIndicator healthIndicator;
+
+	@Autowired
+	private StartedListener startedListener;
+
+	@Test
+	public void startEnvironment_test13() throws Exception {
+		assertThat(starter.awaitStartup(10L, TimeUnit.SECONDS)).isTrue();
+		assertThat(starter.getState()).isEqualTo(QuartzAsyncSchedulerStarter.State.STARTED);
+		assertThat(scheduler.isStarted()).isTrue();
+		assertThat(scheduler.getTriggerKeys(GroupMatcher.anyTriggerGroup())).hasSize(4);
+
+		QuartzSchedulerStartedEvent event = startedListener.event.get(10L, TimeUnit.SECONDS);
+		assertThat(event.getScheduler()).isSameAs(scheduler);
+		assertThat(event.getStartupTime()).isGreaterThanOrEqualTo(0L);
+
+		assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+		assertThat(healthIndicator.health().getDetails()).containsEntry("startup", "STARTED").containsEntry("started", true);
+	}
+
+}
@@ -0,0 +1,64 @@
+package de.chandre.quartz.spring.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import de.chandre.quartz.context.TestContextConfiguration4;
+import de.chandre.quartz.spring.QuartzTriggerRegistrar;
+import de.chandre.quartz.spring.app.TestApplication;
+
+/**
+ * trigger reconciliation without deferred-trigger-registration test
+ * @author André
+ * @since 1.0.6
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes=TestApplication.class)
+@ContextConfiguration(classes= {TestContextConfiguration4.class})
+@TestPropertySource(properties = {
+		"quartz.enabled=true",
+		"quartz.persistence.persisted=false",
+		"quartz.scheduler-factory.reconcile-triggers=true",
+		"flyway.enabled=false",
+		"spring.datasource.url=jdbc:h2:mem:datajpa;MODE=Oracle",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"})
+@DirtiesContext
+public class QuartzSchedulerAutoConfig15Test {
+
+	@Autowired
+	private Scheduler scheduler;
+
+	@Autowired
+	private QuartzTriggerRegistrar triggerRegistrar;
+
+	@Test
+	public void startEnvironment_test15() throws SchedulerException {
+		assertNotNull(scheduler);
+		assertThat(triggerRegistrar.isReconcile()).isTrue();
+		assertThat(triggerRegistrar.isRegistered()).isTrue();
+
+		assertThat(scheduler.getTriggerKeys(GroupMatcher.anyTriggerGroup())).hasSize(4);
+		JobKey simpleJob = new JobKey(TestContextConfiguration4.SIMPLE_JOB_NAME, TestContextConfiguration4.SIMPLE_JOB_GROUP);
+		assertThat(scheduler.getTriggersOfJob(simpleJob)).hasSize(2);
+	}
+
+}
@@ -0,0 +1,70 @@
+package de.chandre.quartz.spring.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import de.chandre.quartz.context.TestContextConfiguration12;
+import de.chandre.quartz.spring.QuartzTriggerRegistrar;
+import de.chandre.quartz.spring.app.TestApplication;
+
+/**
+ * deferred registration of lazy trigger factory beans test
+ * @author André
+ * @since 1.0.6
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes=TestApplication.class)
+@ContextConfiguration(classes= {TestContextConfiguration12.class})
+@TestPropertySource(properties = {
+		"quartz.enabled=true",
+		"quartz.persistence.persisted=false",
+		"quartz.scheduler-factory.deferred-trigger-registration=true",
+		"flyway.enabled=false",
+		"spring.datasource.url=jdbc:h2:mem:datajpa;MODE=Oracle",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"})
+@DirtiesContext
+public class QuartzSchedulerAutoConfig16Test {
+
+	@Autowired
+	private Scheduler scheduler;
+
+	@Autowired
+	private QuartzTriggerRegistrar triggerRegistrar;
+
+	@Autowired
+	private TestContextConfiguration12.CreatedBeforeStart createdBeforeStart;
+
+	@Test
+	public void startEnvironment_test16() throws SchedulerException {
+		assertThat(triggerRegistrar.isRegistered()).isTrue();
+
+		// not created with the other singletons
+		assertThat(createdBeforeStart.getCreated()).containsOnlyKeys(TestContextConfiguration12.LAZY_BEAN_NAMES)
+				.doesNotContainValue(Boolean.TRUE);
+
+		assertThat(scheduler.getTriggerKeys(GroupMatcher.anyTriggerGroup())).containsExactlyInAnyOrder(
+				new TriggerKey("LazyTrigger", "LazyGroup"), new TriggerKey("LazyCronTrigger", "LazyGroup"));
+		assertThat(scheduler.getTriggersOfJob(new JobKey("LazyJobName", "LazyJobGroup"))).hasSize(1);
+		assertThat(scheduler.getTriggersOfJob(new JobKey("LazyCronJobName", "LazyJobGroup"))).hasSize(1);
+	}
+
+}